@@ -0,0 +1,132 @@
+package net.java.inventory_app.cache;
+
+import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.event.CatalogImportedEvent;
+import net.java.inventory_app.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of Product rows, evicting least-recently-used entries beyond max-size and
+ * entries older than the TTL. Cached instances are shared and detached: read them, never modify them.
+ * Writers publish a ProductChangedEvent and the affected ids are dropped once their transaction commits.
+ */
+@Component
+public class ProductCache {
+
+    private final Map<Long, CachedProduct> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    // Bumped on every invalidation, so a load that raced with a write is not cached
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    @Value("${inventory.cache.products.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${inventory.cache.products.max-size:10000}")
+    private int maxSize = 10000;
+
+    @Value("${inventory.cache.products.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    // Cached product, or the loader's result (cached if the loader returned one)
+    public Product get(Long id, Function<Long, Product> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            CachedProduct cached = entries.get(id);
+            if (cached != null) {
+                if (cached.expiresAt - System.nanoTime() > 0) {
+                    hits++;
+                    return cached.product;
+                }
+                entries.remove(id);
+                expirations++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        // Load outside the lock so a slow query does not block other readers
+        Product product = loader.apply(id);
+        if (product != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(id, new CachedProduct(product, System.nanoTime() + ttlSeconds * 1_000_000_000L));
+                    evictOverflow();
+                }
+            }
+        }
+        return product;
+    }
+
+    public synchronized void invalidate(Iterable<Long> ids) {
+        generation++;
+        for (Long id : ids) {
+            if (entries.remove(id) != null) {
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.productIds());
+    }
+
+    // A bulk import may have rewritten any row
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long lookups = hits + misses;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups == 0 ? 0.0 : Math.round(hits * 10000.0 / lookups) / 100.0);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        stats.put("invalidations", invalidations);
+        return stats;
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedProduct> it = entries.values().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private record CachedProduct(Product product, long expiresAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package net.java.inventory_app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class ForecastExecutorConfig {
+
+    // CPU-bound forecast math; 0 means one worker per available core
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool forecastComputePool(@Value("${inventory.forecast.parallelism:0}") int parallelism) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(workers);
+    }
+
+    // I/O-bound batch writes; concurrency is capped separately so the connection pool is not starved
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService forecastIoExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("forecast-io-", 0).factory());
+    }
+}
@@ -0,0 +1,18 @@
+package net.java.inventory_app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class JobExecutorConfig {
+
+    // Background jobs queue up behind a fixed number of workers
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService jobExecutor(@Value("${inventory.jobs.workers:2}") int workers) {
+        return Executors.newFixedThreadPool(Math.max(1, workers), Thread.ofPlatform().name("job-", 0).factory());
+    }
+}
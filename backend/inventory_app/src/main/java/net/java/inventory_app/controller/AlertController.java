@@ -1,5 +1,6 @@
 package net.java.inventory_app.controller;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.Alert;
 import net.java.inventory_app.entity.Product;
 import net.java.inventory_app.service.AlertService;
@@ -25,6 +26,18 @@ public class AlertController {
         return ResponseEntity.ok(alertService.getAllAlerts());
     }
 
+    // Get alerts one page at a time; pass nextCursor back as ?cursor= for the next page
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Alert>> getAlertsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(alertService.getAlertsPage(cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get unread alerts
     @GetMapping("/unread")
     public ResponseEntity<List<Alert>> getUnreadAlerts() {
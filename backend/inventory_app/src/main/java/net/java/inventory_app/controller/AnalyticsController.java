@@ -1,6 +1,7 @@
 // backend/src/main/java/net/java/inventory_app/controller/AnalyticsController.java
 package net.java.inventory_app.controller;
 
+import net.java.inventory_app.forecast.SalesSeriesStore;
 import net.java.inventory_app.service.OrderService;
 import net.java.inventory_app.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +21,9 @@ public class AnalyticsController {
     
     @Autowired
     private ProductService productService;
+    
+    @Autowired
+    private SalesSeriesStore salesSeriesStore;
 
     @GetMapping("/monthly-sales")
     public ResponseEntity<Map<String, Object>> getMonthlySales() {
@@ -36,13 +40,17 @@ public class AnalyticsController {
         }
     }
 
+    // Units sold and revenue per day across the catalog for the last ?days days, from the sales series store
     @GetMapping("/inventory-trends")
-    public ResponseEntity<Map<String, Object>> getInventoryTrends() {
+    public ResponseEntity<Map<String, Object>> getInventoryTrends(@RequestParam(defaultValue = "30") int days) {
         Map<String, Object> response = new HashMap<>();
         try {
-            // Implement inventory trends logic
+            if (!salesSeriesStore.isReady()) {
+                throw new RuntimeException("Sales series are still loading");
+            }
             response.put("success", true);
             response.put("message", "Inventory trends data");
+            response.put("data", salesSeriesStore.catalogTotals(days));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.put("success", false);
@@ -51,6 +59,35 @@ public class AnalyticsController {
         }
     }
 
+    // Daily units sold and revenue of one product for the last ?days days, oldest first, zero on days without sales
+    @GetMapping("/sales-series/{productId}")
+    public ResponseEntity<Map<String, Object>> getSalesSeries(@PathVariable Long productId,
+                                                              @RequestParam(defaultValue = "30") int days) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            if (!salesSeriesStore.isReady()) {
+                throw new RuntimeException("Sales series are still loading");
+            }
+            int length = Math.max(1, Math.min(days, salesSeriesStore.getDays()));
+            response.put("success", true);
+            response.put("productId", productId);
+            response.put("days", length);
+            response.put("quantities", salesSeriesStore.dailyQuantities(productId, length));
+            response.put("revenue", salesSeriesStore.dailyRevenue(productId, length));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // Heap taken by the sales series store, per product and projected per 10k products
+    @GetMapping("/sales-series/memory")
+    public ResponseEntity<Map<String, Object>> getSalesSeriesMemory() {
+        return ResponseEntity.ok(salesSeriesStore.getMemoryReport());
+    }
+
     @GetMapping("/top-restocked")
     public ResponseEntity<Map<String, Object>> getTopRestocked() {
         Map<String, Object> response = new HashMap<>();
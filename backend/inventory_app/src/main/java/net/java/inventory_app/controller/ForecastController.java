@@ -1,11 +1,28 @@
 package net.java.inventory_app.controller;
 
+import net.java.inventory_app.dto.BacktestReport;
+import net.java.inventory_app.dto.ForecastRunResult;
 import net.java.inventory_app.entity.DemandForecast;
+import net.java.inventory_app.forecast.ForecastMethod;
+import net.java.inventory_app.forecast.ForecastProgress;
+import net.java.inventory_app.forecast.SalesHistoryArchive;
+import net.java.inventory_app.forecast.SalesRollup;
 import net.java.inventory_app.service.AIForecastService;
+import net.java.inventory_app.service.ForecastBacktestService;
+import net.java.inventory_app.service.JobService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
@@ -18,6 +35,18 @@ public class ForecastController {
 
     @Autowired
     private AIForecastService forecastService;
+    
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private SalesRollup salesRollup;
+
+    @Autowired
+    private SalesHistoryArchive salesHistoryArchive;
+
+    @Autowired
+    private ForecastBacktestService backtestService;
 
     // Generate forecast for a product
     @PostMapping("/generate")
@@ -46,11 +75,90 @@ public class ForecastController {
         Map<String, Object> response = new HashMap<>();
         try {
             String forecastType = request.getOrDefault("forecastType", "DAILY");
-            List<DemandForecast> forecasts = forecastService.generateAllForecasts(forecastType);
+            ForecastRunResult result = forecastService.generateAllForecasts(forecastType, new ForecastProgress());
             
             response.put("success", true);
-            response.put("count", forecasts.size());
-            response.put("forecasts", forecasts);
+            response.put("count", result.getForecasts().size());
+            response.put("forecasts", result.getForecasts());
+            response.put("executionMode", result.getExecutionMode());
+            response.put("parallelism", result.getParallelism());
+            response.put("totalProducts", result.getTotalProducts());
+            response.put("processedProducts", result.getProcessedProducts());
+            response.put("failedProducts", result.getFailedProducts());
+            response.put("elapsedMs", result.getElapsedMs());
+            response.put("productsPerSecond", result.getProductsPerSecond());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // Queue forecast generation for all products as a background job
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> submitGenerateAllJob(@RequestBody(required = false) Map<String, String> request) {
+        String forecastType = request != null ? request.getOrDefault("forecastType", "DAILY") : "DAILY";
+        return JobController.accepted(jobService.submitForecastJob(forecastType));
+    }
+
+    // Fold new orders and stock-outs into historical_sales now instead of waiting for the scheduled run
+    @PostMapping("/sales-rollup")
+    public ResponseEntity<Map<String, Object>> runSalesRollup() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            long folded = salesRollup.run();
+            response.put("success", true);
+            response.put("message", folded + " rows folded into historical sales");
+            response.put("stats", salesRollup.getStats());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // Sales rollup counters and high-water marks
+    @GetMapping("/sales-rollup")
+    public ResponseEntity<Map<String, Object>> getSalesRollupStats() {
+        return ResponseEntity.ok(salesRollup.getStats());
+    }
+
+    // Re-encode the compressed sales history file from historical_sales now
+    @PostMapping("/sales-archive")
+    public ResponseEntity<Map<String, Object>> rebuildSalesArchive() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("stats", salesHistoryArchive.rebuild());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // Sales history archive size, range and compression
+    @GetMapping("/sales-archive")
+    public ResponseEntity<Map<String, Object>> getSalesArchiveStats() {
+        return ResponseEntity.ok(salesHistoryArchive.getStats());
+    }
+
+    // Daily quantities of one product from the archive, e.g. /sales-archive/42?from=2023-01-01&to=2024-12-31
+    @GetMapping("/sales-archive/{productId}")
+    public ResponseEntity<Map<String, Object>> getArchivedSales(
+            @PathVariable Long productId,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("productId", productId);
+            response.put("from", from);
+            response.put("to", to);
+            response.put("quantities", salesHistoryArchive.dailyQuantities(productId, from, to));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.put("success", false);
@@ -59,6 +167,54 @@ public class ForecastController {
         }
     }
 
+    // Queue a rolling-origin backtest of every forecast method over the sales history archive as a background job
+    @PostMapping("/backtest")
+    public ResponseEntity<Map<String, Object>> submitBacktest(
+            @RequestParam(defaultValue = "7") int horizonDays,
+            @RequestParam(defaultValue = "8") int origins,
+            @RequestParam(defaultValue = "7") int stepDays) {
+        return JobController.accepted(jobService.submitBacktestJob(horizonDays, origins, stepDays));
+    }
+
+    // Catalog-wide MAPE / sMAPE / bias per method of the last backtest
+    @GetMapping("/backtest")
+    public ResponseEntity<Map<String, Object>> getBacktestReport() {
+        Map<String, Object> response = new HashMap<>();
+        BacktestReport report = backtestService.getLastReport();
+        if (report == null) {
+            response.put("success", false);
+            response.put("message", "No backtest has completed yet; POST /api/forecasts/backtest to run one");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("report", report);
+        return ResponseEntity.ok(response);
+    }
+
+    // Per-product and catalog (productId ALL) accuracy of the last backtest as CSV
+    @GetMapping("/backtest/report.csv")
+    public ResponseEntity<StreamingResponseBody> getBacktestCsv() {
+        BacktestReport report = backtestService.getLastReport();
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write("productId,method,forecasts,mape,smape,bias,mae\n");
+            for (BacktestReport.Accuracy accuracy : report.methods()) {
+                writeCsvRow(writer, accuracy);
+            }
+            for (BacktestReport.Accuracy accuracy : report.skus()) {
+                writeCsvRow(writer, accuracy);
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"forecast-backtest.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
     // Get all forecasts
     @GetMapping
     public ResponseEntity<List<DemandForecast>> getAllForecasts() {
@@ -75,12 +231,19 @@ public class ForecastController {
     @GetMapping("/predict/{productId}")
     public ResponseEntity<Map<String, Object>> predictDemand(
             @PathVariable Long productId,
-            @RequestParam(defaultValue = "1") int daysAhead) {
+            @RequestParam(defaultValue = "1") int daysAhead,
+            @RequestParam(required = false) String method) {
         Map<String, Object> response = new HashMap<>();
         try {
-            Integer prediction = forecastService.predictDemand(productId, daysAhead);
+            // ?method=blend, hw-additive or hw-multiplicative overrides the configured method
+            Integer prediction = method != null
+                    ? forecastService.predictDemand(productId, daysAhead, ForecastMethod.fromLabel(method))
+                    : forecastService.predictDemand(productId, daysAhead);
             response.put("productId", productId);
             response.put("daysAhead", daysAhead);
+            if (method != null) {
+                response.put("method", ForecastMethod.fromLabel(method));
+            }
             response.put("predictedDemand", prediction);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -88,4 +251,10 @@ public class ForecastController {
             return ResponseEntity.badRequest().body(response);
         }
     }
-}
\ No newline at end of file
+
+    private static void writeCsvRow(Writer writer, BacktestReport.Accuracy accuracy) throws IOException {
+        writer.write((accuracy.productId() != null ? accuracy.productId().toString() : "ALL") + "," + accuracy.method()
+                + "," + accuracy.forecasts() + "," + accuracy.mape() + "," + accuracy.smape() + "," + accuracy.bias()
+                + "," + accuracy.mae() + "\n");
+    }
+}
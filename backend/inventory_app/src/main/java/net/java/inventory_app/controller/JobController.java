@@ -0,0 +1,68 @@
+package net.java.inventory_app.controller;
+
+import net.java.inventory_app.job.BackgroundJob;
+import net.java.inventory_app.service.JobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "http://localhost:3000")
+public class JobController {
+
+    @Autowired
+    private JobService jobService;
+
+    // Get all retained jobs
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getAllJobs() {
+        return ResponseEntity.ok(jobService.getAllJobs().stream().map(job -> describe(job, false, 0)).toList());
+    }
+
+    // Poll a job; partial results are returned from index 'from' on
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getJob(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int from) {
+        try {
+            return ResponseEntity.ok(describe(jobService.getJob(id), true, from));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Response body for a freshly submitted (or coalesced) job
+    static ResponseEntity<Map<String, Object>> accepted(BackgroundJob job) {
+        Map<String, Object> response = describe(job, false, 0);
+        response.put("success", true);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    private static Map<String, Object> describe(BackgroundJob job, boolean includeResults, int from) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("jobType", job.getJobType());
+        response.put("status", job.getStatus());
+        response.put("percentComplete", job.getPercentComplete());
+        response.put("partialResultCount", job.getPartialResultCount());
+        response.put("submittedAt", job.getSubmittedAt());
+        response.put("startedAt", job.getStartedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        if (job.getError() != null) {
+            response.put("error", job.getError());
+        }
+        if (includeResults) {
+            response.put("partialResults", job.getPartialResults(from));
+            if (job.getStatus() == BackgroundJob.Status.COMPLETED) {
+                response.put("result", job.getResult());
+            }
+        }
+        return response;
+    }
+}
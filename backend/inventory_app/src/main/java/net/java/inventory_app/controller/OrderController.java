@@ -1,6 +1,9 @@
 package net.java.inventory_app.controller;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.Order;
+import net.java.inventory_app.exception.InsufficientStockException;
+import net.java.inventory_app.idempotency.IdempotencyStore;
 import net.java.inventory_app.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,32 +20,44 @@ import java.util.Map;
 public class OrderController {
 
     private OrderService orderService;
+    private IdempotencyStore idempotencyStore;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
     }
 
-    // Place Order
+    // Place Order (send an Idempotency-Key header so a retried checkout does not place a second order)
     @PostMapping("/place")
-    public ResponseEntity<Map<String, Object>> placeOrder(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            Long userId = Long.valueOf(request.get("userId").toString());
-            List<Map<String, Object>> cartItems = (List<Map<String, Object>>) request.get("cartItems");
+    public ResponseEntity<Map<String, Object>> placeOrder(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> request) {
+        return idempotencyStore.execute("order-place", idempotencyKey, request, () -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                Long userId = Long.valueOf(request.get("userId").toString());
+                List<Map<String, Object>> cartItems = (List<Map<String, Object>>) request.get("cartItems");
 
-            Order order = orderService.placeOrder(userId, cartItems);
+                Order order = orderService.placeOrder(userId, cartItems);
             
-            response.put("success", true);
-            response.put("message", "Order placed successfully!");
-            response.put("orderId", order.getId());
-            response.put("totalAmount", order.getTotalAmount());
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+                response.put("success", true);
+                response.put("message", "Order placed successfully!");
+                response.put("orderId", order.getId());
+                response.put("totalAmount", order.getTotalAmount());
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (InsufficientStockException e) {
+                response.put("success", false);
+                response.put("message", e.getMessage());
+                response.put("errorCode", "INSUFFICIENT_STOCK");
+                response.put("shortages", e.getShortages());
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            } catch (RuntimeException e) {
+                response.put("success", false);
+                response.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+        });
     }
 
     // Get All Orders (Admin only)
@@ -51,6 +66,18 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    // Get orders one page at a time; pass nextCursor back as ?cursor= for the next page
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Order>> getOrdersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPage(cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get Orders by User
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Order>> getOrdersByUser(@PathVariable Long userId) {
@@ -1,6 +1,13 @@
 package net.java.inventory_app.controller;
 
+import net.java.inventory_app.dto.CursorPage;
+import net.java.inventory_app.dto.ProductImportResult;
+import net.java.inventory_app.cache.ProductCache;
 import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.ranking.TopSellers;
+import net.java.inventory_app.ranking.TrendingProducts;
+import net.java.inventory_app.search.ProductSearchIndex;
+import net.java.inventory_app.service.ProductImportService;
 import net.java.inventory_app.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -8,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,10 +26,19 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductCache productCache;
+    private final TopSellers topSellers;
+    private final TrendingProducts trendingProducts;
+    private final ProductImportService productImportService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductCache productCache, TopSellers topSellers,
+                             TrendingProducts trendingProducts, ProductImportService productImportService) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.productCache = productCache;
+        this.topSellers = topSellers;
+        this.trendingProducts = trendingProducts;
     }
 
     // Get all products
@@ -30,10 +47,48 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    // Get products one page at a time; pass nextCursor back as ?cursor= for the next page
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Product>> getProductsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(productService.getProductsPage(cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get Top Selling Products (must be above "/{id}")
     @GetMapping("/top")
-    public ResponseEntity<List<Product>> getTopSellingProducts() {
-        return ResponseEntity.ok(productService.getMostBoughtProducts());
+    public ResponseEntity<List<Product>> getTopSellingProducts(@RequestParam(defaultValue = "10") int limit) {
+        int k = Math.max(1, Math.min(limit, topSellers.getMaxK()));
+        return ResponseEntity.ok(productService.getMostBoughtProducts(k));
+    }
+
+    // Get products selling most right now: window=24h, 7d or 30d (must be above "/{id}")
+    @GetMapping("/trending")
+    public ResponseEntity<Map<String, Object>> getTrendingProducts(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            int k = Math.max(1, Math.min(limit, trendingProducts.getMaxK()));
+            response.put("success", true);
+            response.put("window", window);
+            response.put("products", productService.getTrendingProducts(window, k));
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // Trending sketch sizes and candidate counts per window
+    @GetMapping("/trending/stats")
+    public ResponseEntity<Map<String, Object>> getTrendingStats() {
+        return ResponseEntity.ok(trendingProducts.getStats());
     }
 
     // Get Low Stock Products using limit parameter
@@ -42,6 +97,20 @@ public class ProductController {
         return ResponseEntity.ok(productService.getLowStockProducts(limit));
     }
 
+    // Ranked autocomplete over product names, e.g. /api/products/search?q=wire mou&limit=10 (must be above "/{id}")
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchIndex.Hit>> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.searchProducts(query, Math.min(Math.max(limit, 1), 100)));
+    }
+
+    // Product cache hit/miss/eviction counters (must be above "/{id}")
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(productCache.getStats());
+    }
+
     // Get product by ID
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
@@ -69,6 +138,26 @@ public class ProductController {
         }
     }
 
+    // Bulk import from a CSV (header row) or NDJSON request body, e.g. POST /api/products/import?format=csv
+    // Rows with an id are upserted, rows without are inserted; bad rows are reported by line number
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            ProductImportResult result = productImportService.importProducts(body, format);
+            response.put("success", result.failed() == 0);
+            response.put("message", (result.inserted() + result.upserted()) + " of " + result.rows() + " rows imported");
+            response.put("result", result);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
     // Update product
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Object>> updateProduct(
@@ -1,5 +1,6 @@
 package net.java.inventory_app.controller;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.PurchaseOrder;
 import net.java.inventory_app.service.RestockService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +26,18 @@ public class PurchaseOrderController {
         return ResponseEntity.ok(restockService.getAllPurchaseOrders());
     }
 
+    // Get purchase orders one page at a time; pass nextCursor back as ?cursor= for the next page
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<PurchaseOrder>> getPurchaseOrdersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(restockService.getPurchaseOrdersPage(cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get purchase order by ID
     @GetMapping("/{id}")
     public ResponseEntity<PurchaseOrder> getPurchaseOrderById(@PathVariable Long id) {
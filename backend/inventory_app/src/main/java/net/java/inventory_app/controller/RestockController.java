@@ -1,9 +1,15 @@
 package net.java.inventory_app.controller;
 
 import net.java.inventory_app.dto.RestockRecommendation;
+import net.java.inventory_app.service.JobService;
 import net.java.inventory_app.service.RestockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
 
 import java.util.List;
 import java.util.Map;
@@ -15,9 +21,48 @@ public class RestockController {
 
     @Autowired
     private RestockService restockService;
+    
+    @Autowired
+    private JobService jobService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
 
+    // Recommendations are written field by field straight to the response, without an intermediate tree
     @GetMapping
-    public List<Map<String, Object>> getRestockRecommendations() {
-        return restockService.getRestockRecommendations();
+    public ResponseEntity<StreamingResponseBody> getRestockRecommendations() {
+        List<RestockRecommendation> recommendations = restockService.getRestockRecommendations();
+        
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                json.writeStartArray();
+                for (RestockRecommendation r : recommendations) {
+                    writeRecommendation(json, r);
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Queue the recommendation scan as a background job
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> submitRestockJob() {
+        return JobController.accepted(jobService.submitRestockJob());
+    }
+
+    private static void writeRecommendation(JsonGenerator json, RestockRecommendation r) {
+        json.writeStartObject();
+        json.writeNumberProperty("productId", r.productId());
+        json.writeStringProperty("productName", r.productName());
+        json.writeNumberProperty("currentStock", r.currentStock());
+        json.writeNumberProperty("reorderPoint", r.reorderPoint());
+        json.writeNumberProperty("recommendedQty", r.recommendedQty());
+        json.writeNumberProperty("predictedDemand", r.predictedDemand());
+        json.writeNumberProperty("daysUntilStockout", r.daysUntilStockout());
+        json.writeStringProperty("urgency", r.urgency().name());
+        json.writeNumberProperty("estimatedCost", r.estimatedCost());
+        json.writeNumberProperty("leadTimeDays", r.leadTimeDays());
+        json.writeEndObject();
     }
-}
\ No newline at end of file
+}
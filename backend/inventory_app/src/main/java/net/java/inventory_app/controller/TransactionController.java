@@ -1,12 +1,33 @@
 package net.java.inventory_app.controller;
 
+import net.java.inventory_app.dto.CursorPage;
+import net.java.inventory_app.dto.StockMovement;
+import net.java.inventory_app.dto.StockMovementResult;
+import net.java.inventory_app.dto.TransactionExportRow;
+import net.java.inventory_app.entity.LedgerReconciliation;
 import net.java.inventory_app.entity.Transaction;
+import net.java.inventory_app.idempotency.IdempotencyStore;
+import net.java.inventory_app.ledger.StockLedger;
 import net.java.inventory_app.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SequenceWriter;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,58 +38,98 @@ import java.util.Map;
 public class TransactionController {
 
     private TransactionService transactionService;
+    private StockLedger stockLedger;
+    private ObjectMapper objectMapper;
+    private IdempotencyStore idempotencyStore;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, StockLedger stockLedger, ObjectMapper objectMapper,
+                                 IdempotencyStore idempotencyStore) {
         this.transactionService = transactionService;
+        this.stockLedger = stockLedger;
+        this.objectMapper = objectMapper;
+        this.idempotencyStore = idempotencyStore;
     }
 
-    // Record Stock-In
+    // Record Stock-In (send an Idempotency-Key header to make client retries safe)
     @PostMapping("/stock-in")
-    public ResponseEntity<Map<String, Object>> recordStockIn(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            Long productId = Long.valueOf(request.get("productId").toString());
-            Integer quantity = Integer.valueOf(request.get("quantity").toString());
-            String handler = request.get("handler").toString();
-            String notes = request.get("notes") != null ? request.get("notes").toString() : "";
+    public ResponseEntity<Map<String, Object>> recordStockIn(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> request) {
+        return idempotencyStore.execute("stock-in", idempotencyKey, request, () -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                Long productId = Long.valueOf(request.get("productId").toString());
+                Integer quantity = Integer.valueOf(request.get("quantity").toString());
+                String handler = request.get("handler").toString();
+                String notes = request.get("notes") != null ? request.get("notes").toString() : "";
 
-            Transaction transaction = transactionService.recordStockIn(productId, quantity, handler, notes);
+                Transaction transaction = transactionService.recordStockIn(productId, quantity, handler, notes);
             
-            response.put("success", true);
-            response.put("message", "Stock-in recorded successfully");
-            response.put("transaction", transaction);
-            response.put("currentStock", transactionService.getCurrentStock(productId));
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+                response.put("success", true);
+                response.put("message", "Stock-in recorded successfully");
+                response.put("transaction", transaction);
+                response.put("currentStock", transactionService.getCurrentStock(productId));
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (RuntimeException e) {
+                response.put("success", false);
+                response.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+        });
     }
 
     // Record Stock-Out
     @PostMapping("/stock-out")
-    public ResponseEntity<Map<String, Object>> recordStockOut(@RequestBody Map<String, Object> request) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            Long productId = Long.valueOf(request.get("productId").toString());
-            Integer quantity = Integer.valueOf(request.get("quantity").toString());
-            String handler = request.get("handler").toString();
-            String notes = request.get("notes") != null ? request.get("notes").toString() : "";
+    public ResponseEntity<Map<String, Object>> recordStockOut(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> request) {
+        return idempotencyStore.execute("stock-out", idempotencyKey, request, () -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                Long productId = Long.valueOf(request.get("productId").toString());
+                Integer quantity = Integer.valueOf(request.get("quantity").toString());
+                String handler = request.get("handler").toString();
+                String notes = request.get("notes") != null ? request.get("notes").toString() : "";
 
-            Transaction transaction = transactionService.recordStockOut(productId, quantity, handler, notes);
+                Transaction transaction = transactionService.recordStockOut(productId, quantity, handler, notes);
             
-            response.put("success", true);
-            response.put("message", "Stock-out recorded successfully");
-            response.put("transaction", transaction);
-            response.put("currentStock", transactionService.getCurrentStock(productId));
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+                response.put("success", true);
+                response.put("message", "Stock-out recorded successfully");
+                response.put("transaction", transaction);
+                response.put("currentStock", transactionService.getCurrentStock(productId));
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (RuntimeException e) {
+                response.put("success", false);
+                response.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+        });
+    }
+
+    // Record many Stock-In / Stock-Out lines at once (e.g. receiving a truck)
+    @PostMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> recordBulk(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestBody List<StockMovement> movements) {
+        return idempotencyStore.execute("bulk", idempotencyKey, movements, () -> {
+            Map<String, Object> response = new HashMap<>();
+            try {
+                List<StockMovementResult> results = transactionService.recordBulk(movements);
+                long applied = results.stream().filter(StockMovementResult::isSuccess).count();
+            
+                response.put("success", applied == results.size());
+                response.put("message", applied + " of " + results.size() + " movements recorded");
+                response.put("applied", applied);
+                response.put("failed", results.size() - applied);
+                response.put("results", results);
+                return ResponseEntity.ok(response);
+            } catch (RuntimeException e) {
+                response.put("success", false);
+                response.put("message", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+        });
     }
 
     // Get All Transactions
@@ -77,6 +138,70 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.getAllTransactions());
     }
 
+    // Get transactions one page at a time; pass nextCursor back as ?cursor= for the next page
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Transaction>> getTransactionsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionsPage(cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Export transactions as CSV or NDJSON, streamed from a database cursor (from/to are inclusive dates)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long productId) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDateTime start = from != null ? from.atStartOfDay() : null;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : null;
+
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            if (ndjson) {
+                try (SequenceWriter lines = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer)) {
+                    transactionService.exportTransactions(start, end, productId, lines::write);
+                    writer.write('\n');
+                }
+            } else {
+                writer.write("id,timestamp,type,quantity,productId,productName,handler,notes\n");
+                transactionService.exportTransactions(start, end, productId, row -> writeCsvRow(writer, row));
+                writer.flush();
+            }
+        };
+        String filename = "transactions." + (ndjson ? "ndjson" : "csv");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
+    // Idempotency key store counters (keys held, replays, key reuse with a different body)
+    @GetMapping("/idempotency")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        return ResponseEntity.ok(idempotencyStore.getStats());
+    }
+
+    // In-memory stock ledger counters (tracked products, pending movements, flush timings)
+    @GetMapping("/ledger")
+    public ResponseEntity<Map<String, Object>> getLedgerStats() {
+        return ResponseEntity.ok(stockLedger.getStats());
+    }
+
+    // Ledger journal deltas the product rows could not take, left for a manual stock correction
+    @GetMapping("/ledger/reconciliation")
+    public ResponseEntity<List<LedgerReconciliation>> getLedgerReconciliation() {
+        return ResponseEntity.ok(stockLedger.getUnappliedDeltas());
+    }
+
     // Get Transactions by Product
     @GetMapping("/product/{productId}")
     public ResponseEntity<List<Transaction>> getTransactionsByProduct(@PathVariable Long productId) {
@@ -105,4 +230,23 @@ public class TransactionController {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    private static void writeCsvRow(Writer writer, TransactionExportRow row) {
+        try {
+            writer.write(row.id() + "," + row.timestamp() + "," + row.transactionType() + "," + row.quantity() + ","
+                    + row.productId() + "," + csv(row.productName()) + "," + csv(row.handler()) + "," + csv(row.notes()) + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
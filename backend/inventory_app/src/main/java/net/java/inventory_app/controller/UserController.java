@@ -1,5 +1,6 @@
 package net.java.inventory_app.controller;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.User;
 import net.java.inventory_app.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -91,6 +92,18 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    // Get users one page at a time; pass nextCursor back as ?cursor= for the next page
+    @GetMapping("/users/page")
+    public ResponseEntity<CursorPage<User>> getUsersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(userService.getUsersPage(cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get user by ID
     @GetMapping("/users/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
@@ -0,0 +1,32 @@
+package net.java.inventory_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Outcome of a rolling-origin backtest; per-product rows are only in the CSV report (see skus)
+public record BacktestReport(LocalDate firstOrigin,
+                             LocalDate lastOrigin,
+                             int horizonDays,
+                             int stepDays,
+                             int origins,
+                             int products,
+                             int skippedProducts,
+                             int parallelism,
+                             long elapsedMillis,
+                             List<Accuracy> methods,
+                             @JsonIgnore List<Accuracy> skus) {
+
+    // Errors of the horizon totals; productId is null for the catalog aggregate of a method.
+    // mape skips origins without sales, smape counts origins where both sides are zero as exact,
+    // bias is the signed total error relative to total actual demand (positive = over-forecast); all in percent
+    public record Accuracy(Long productId,
+                           String method,
+                           long forecasts,
+                           double mape,
+                           double smape,
+                           double bias,
+                           double mae) {
+    }
+}
@@ -0,0 +1,7 @@
+package net.java.inventory_app.dto;
+
+import java.util.List;
+
+// One page of a keyset-paginated list; pass nextCursor back as ?cursor= to get the following page
+public record CursorPage<T>(List<T> items, int size, boolean hasMore, String nextCursor) {
+}
@@ -0,0 +1,47 @@
+package net.java.inventory_app.dto;
+
+import net.java.inventory_app.entity.DemandForecast;
+
+import java.util.List;
+
+public class ForecastRunResult {
+
+    private String forecastType;
+    private String executionMode;
+    private int parallelism;
+    private int totalProducts;
+    private int processedProducts;
+    private int failedProducts;
+    private long elapsedMs;
+    private double productsPerSecond;
+    private List<DemandForecast> forecasts;
+
+    public ForecastRunResult() {}
+
+    public String getForecastType() { return forecastType; }
+    public void setForecastType(String forecastType) { this.forecastType = forecastType; }
+
+    public String getExecutionMode() { return executionMode; }
+    public void setExecutionMode(String executionMode) { this.executionMode = executionMode; }
+
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public int getTotalProducts() { return totalProducts; }
+    public void setTotalProducts(int totalProducts) { this.totalProducts = totalProducts; }
+
+    public int getProcessedProducts() { return processedProducts; }
+    public void setProcessedProducts(int processedProducts) { this.processedProducts = processedProducts; }
+
+    public int getFailedProducts() { return failedProducts; }
+    public void setFailedProducts(int failedProducts) { this.failedProducts = failedProducts; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public double getProductsPerSecond() { return productsPerSecond; }
+    public void setProductsPerSecond(double productsPerSecond) { this.productsPerSecond = productsPerSecond; }
+
+    public List<DemandForecast> getForecasts() { return forecasts; }
+    public void setForecasts(List<DemandForecast> forecasts) { this.forecasts = forecasts; }
+}
@@ -0,0 +1,17 @@
+package net.java.inventory_app.dto;
+
+import java.util.List;
+
+// Outcome of a bulk product import; errors are kept for the first rows only (see errorsTruncated)
+public record ProductImportResult(long rows,
+                                  long inserted,
+                                  long upserted,
+                                  long failed,
+                                  List<RowError> errors,
+                                  boolean errorsTruncated,
+                                  long elapsedMillis) {
+
+    // line is the 1-based line of the row in the uploaded file
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,21 @@
+package net.java.inventory_app.dto;
+
+// Projection of the product columns needed to build a restock recommendation
+public interface RestockCandidate {
+
+    Long getId();
+
+    String getName();
+
+    Double getPrice();
+
+    Integer getCurrentStock();
+
+    Integer getReorderPoint();
+
+    Integer getReorderQuantity();
+
+    Integer getLeadTimeDays();
+
+    Integer getPurchaseCount();
+}
@@ -1,35 +1,19 @@
 package net.java.inventory_app.dto;
 
-public class RestockRecommendation {
-
-    private Long productId;
-    private String productName;
-    private Integer currentStock;
-    private Integer recommendedQuantity;
-
-    public RestockRecommendation() {}
-
-    public RestockRecommendation(Long productId, String productName, Integer currentStock, Integer recommendedQuantity)
-    {
-        this.productId = productId;
-        this.productName = productName;
-        this.currentStock = currentStock;
-        this.recommendedQuantity = recommendedQuantity;
-    }
-
-    public Long getProductId() { return productId; }
-    public void setProductId(Long productId) { this.productId = productId; }
-
-    public String getProductName() { return productName; }
-    public void setProductName(String productName) { this.productName = productName; }
-
-    public Integer getCurrentStock() { return currentStock; }
-    public void setCurrentStock(Integer currentStock) { this.currentStock = currentStock; }
-
-    public Integer getRecommendedQuantity() { return recommendedQuantity; }
-    public void setRecommendedQuantity(Integer recommendedQuantity) { this.recommendedQuantity = recommendedQuantity; 
+public record RestockRecommendation(
+        long productId,
+        String productName,
+        int currentStock,
+        int reorderPoint,
+        int recommendedQty,
+        int predictedDemand,
+        int daysUntilStockout,
+        Urgency urgency,
+        double estimatedCost,
+        int leadTimeDays) {
+
+    // Declared most urgent first, so the ordinal is the sort priority
+    public enum Urgency {
+        CRITICAL, HIGH, MEDIUM, LOW
     }
 }
-
-
-
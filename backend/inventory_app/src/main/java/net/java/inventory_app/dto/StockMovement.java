@@ -0,0 +1,41 @@
+package net.java.inventory_app.dto;
+
+// One line of a bulk stock-in / stock-out request
+public class StockMovement {
+
+    private Long productId;
+    private String transactionType; // "STOCK_IN" or "STOCK_OUT"
+    private Integer quantity;
+    private String handler;
+    private String notes;
+
+    public StockMovement() {}
+
+    public StockMovement(Long productId, String transactionType, Integer quantity, String handler, String notes) {
+        this.productId = productId;
+        this.transactionType = transactionType;
+        this.quantity = quantity;
+        this.handler = handler;
+        this.notes = notes;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getTransactionType() { return transactionType; }
+    public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public String getHandler() { return handler; }
+    public void setHandler(String handler) { this.handler = handler; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    // Signed change to current stock
+    public int delta() {
+        return "STOCK_OUT".equals(transactionType) ? -quantity : quantity;
+    }
+}
@@ -0,0 +1,47 @@
+package net.java.inventory_app.dto;
+
+// Outcome of one line of a bulk stock request, in request order
+public class StockMovementResult {
+
+    private int line;
+    private Long productId;
+    private String transactionType;
+    private Integer quantity;
+    private boolean success;
+    private String message;
+    private Long transactionId;
+    private Integer currentStock;
+
+    public StockMovementResult() {}
+
+    public StockMovementResult(int line, StockMovement movement) {
+        this.line = line;
+        this.productId = movement.getProductId();
+        this.transactionType = movement.getTransactionType();
+        this.quantity = movement.getQuantity();
+    }
+
+    public int getLine() { return line; }
+    public void setLine(int line) { this.line = line; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getTransactionType() { return transactionType; }
+    public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Long getTransactionId() { return transactionId; }
+    public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+
+    public Integer getCurrentStock() { return currentStock; }
+    public void setCurrentStock(Integer currentStock) { this.currentStock = currentStock; }
+}
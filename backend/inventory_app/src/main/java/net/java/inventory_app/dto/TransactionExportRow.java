@@ -0,0 +1,8 @@
+package net.java.inventory_app.dto;
+
+import java.time.LocalDateTime;
+
+// Flat transaction row for exports; selected as scalars so rows never enter the persistence context
+public record TransactionExportRow(Long id, LocalDateTime timestamp, String transactionType, Integer quantity,
+                                   Long productId, String productName, String handler, String notes) {
+}
@@ -5,7 +5,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "alerts")
+@Table(name = "alerts", indexes = @Index(name = "idx_alerts_created_at_id", columnList = "created_at, id"))
 public class Alert {
 
     @Id
@@ -6,7 +6,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "demand_forecast")
+@Table(name = "demand_forecast", uniqueConstraints = @UniqueConstraint(
+        name = "uk_forecast_product_date_type", columnNames = {"product_id", "forecast_date", "forecast_type"}))
 public class DemandForecast {
 
     @Id
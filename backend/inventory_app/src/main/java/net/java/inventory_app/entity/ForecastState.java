@@ -0,0 +1,139 @@
+package net.java.inventory_app.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Running demand statistics of one product, advanced one closed day at a time (see ForecastStateUpdater)
+@Entity
+@Table(name = "forecast_states")
+public class ForecastState {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Holt smoothing: smoothed daily quantity and its per-day slope
+    @Column(nullable = false)
+    private Double level = 0.0;
+
+    @Column(nullable = false)
+    private Double trend = 0.0;
+
+    // Days folded, and the mean / sum of squared deviations of about the last momentDays of them
+    @Column(name = "day_count", nullable = false)
+    private Long dayCount = 0L;
+
+    @Column(nullable = false)
+    private Double mean = 0.0;
+
+    @Column(nullable = false)
+    private Double m2 = 0.0;
+
+    // Moment window the state was folded with; states from another window (or none) are folded again
+    @Column(name = "moment_days")
+    private Integer momentDays;
+
+    // Last day folded into the state (days without sales count as zero)
+    @Column(name = "folded_through", nullable = false)
+    private LocalDate foldedThrough;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Null until first persisted, so new states are inserted without a lookup
+    @Version
+    private Long version;
+
+    // Constructors
+    public ForecastState() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public ForecastState(Long productId, LocalDate foldedThrough) {
+        this.productId = productId;
+        this.foldedThrough = foldedThrough;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Double getLevel() {
+        return level;
+    }
+
+    public void setLevel(Double level) {
+        this.level = level;
+    }
+
+    public Double getTrend() {
+        return trend;
+    }
+
+    public void setTrend(Double trend) {
+        this.trend = trend;
+    }
+
+    public Long getDayCount() {
+        return dayCount;
+    }
+
+    public void setDayCount(Long dayCount) {
+        this.dayCount = dayCount;
+    }
+
+    public Double getMean() {
+        return mean;
+    }
+
+    public void setMean(Double mean) {
+        this.mean = mean;
+    }
+
+    public Double getM2() {
+        return m2;
+    }
+
+    public void setM2(Double m2) {
+        this.m2 = m2;
+    }
+
+    public Integer getMomentDays() {
+        return momentDays;
+    }
+
+    public void setMomentDays(Integer momentDays) {
+        this.momentDays = momentDays;
+    }
+
+    public LocalDate getFoldedThrough() {
+        return foldedThrough;
+    }
+
+    public void setFoldedThrough(LocalDate foldedThrough) {
+        this.foldedThrough = foldedThrough;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -5,7 +5,8 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "historical_sales")
+@Table(name = "historical_sales",
+        uniqueConstraints = @UniqueConstraint(name = "uk_historical_sales_product_date", columnNames = {"product_id", "sale_date"}))
 public class HistoricalSales {
 
     @Id
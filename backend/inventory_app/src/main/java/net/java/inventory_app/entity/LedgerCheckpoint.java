@@ -0,0 +1,56 @@
+package net.java.inventory_app.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ledger_checkpoints")
+public class LedgerCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    // High-water mark of the named job: highest source row id already processed
+    // (stock ledger: journal transaction applied to products.current_stock; sales rollup: folded order item / transaction)
+    @Column(name = "last_transaction_id", nullable = false)
+    private Long lastTransactionId = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public LedgerCheckpoint() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public LedgerCheckpoint(String name) {
+        this.name = name;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public void setLastTransactionId(Long lastTransactionId) {
+        this.lastTransactionId = lastTransactionId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,81 @@
+package net.java.inventory_app.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A stock ledger journal delta that could not be applied to products.current_stock and needs a manual fix
+@Entity
+@Table(name = "ledger_reconciliation")
+public class LedgerReconciliation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Net quantity the journal rows asked for (negative = stock out)
+    @Column(nullable = false)
+    private Long delta;
+
+    // Highest journal transaction id the delta was summed up to
+    @Column(name = "journal_through_id", nullable = false)
+    private Long journalThroughId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public LedgerReconciliation() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public LedgerReconciliation(Long productId, Long delta, Long journalThroughId) {
+        this.productId = productId;
+        this.delta = delta;
+        this.journalThroughId = journalThroughId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Long delta) {
+        this.delta = delta;
+    }
+
+    public Long getJournalThroughId() {
+        return journalThroughId;
+    }
+
+    public void setJournalThroughId(Long journalThroughId) {
+        this.journalThroughId = journalThroughId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,5 +1,6 @@
 package net.java.inventory_app.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -43,6 +44,12 @@ public class Product {
     @Column(name = "lead_time_days")
     private Integer leadTimeDays = 7;
 
+    // Optimistic locking; bulk stock updates bump it explicitly
+    @Version
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
     // Default Constructor
     public Product() {
     }
@@ -137,6 +144,14 @@ public class Product {
         this.leadTimeDays = leadTimeDays;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Product{" +
@@ -7,7 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "purchase_orders")
+@Table(name = "purchase_orders", indexes = @Index(name = "idx_purchase_orders_created_at_id", columnList = "created_at, id"))
 public class PurchaseOrder {
 
     @Id
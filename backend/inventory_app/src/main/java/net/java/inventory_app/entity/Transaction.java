@@ -8,9 +8,12 @@ import jakarta.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = @Index(name = "idx_transactions_timestamp_id", columnList = "timestamp, id"))
 public class Transaction {
 
+    // Handler prefix of the STOCK_OUT rows written for placed orders
+    public static final String ORDER_HANDLER_PREFIX = "System - User Purchase by ";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,5 @@
+package net.java.inventory_app.event;
+
+// Published after a bulk product import has committed; in-memory product views reload from the table
+public record CatalogImportedEvent(long inserted, long upserted) {
+}
@@ -0,0 +1,8 @@
+package net.java.inventory_app.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Published by placeOrder with the total quantity bought per product; listeners run after the order commits
+public record OrderPlacedEvent(Long orderId, Long userId, LocalDateTime placedAt, Map<Long, Integer> quantities) {
+}
@@ -0,0 +1,12 @@
+package net.java.inventory_app.event;
+
+import java.util.Collection;
+import java.util.List;
+
+// Published whenever product rows (details or stock) change; listeners run after the transaction commits
+public record ProductChangedEvent(Collection<Long> productIds) {
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(List.of(productId));
+    }
+}
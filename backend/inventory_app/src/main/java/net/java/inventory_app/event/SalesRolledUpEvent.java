@@ -0,0 +1,7 @@
+package net.java.inventory_app.event;
+
+import java.time.LocalDate;
+
+// Published after the sales rollup committed new historical_sales quantities for days from 'since' on
+public record SalesRolledUpEvent(LocalDate since, long sourceRows) {
+}
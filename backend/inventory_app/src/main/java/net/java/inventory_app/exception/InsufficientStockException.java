@@ -0,0 +1,29 @@
+package net.java.inventory_app.exception;
+
+import java.util.List;
+
+/**
+ * Thrown when one or more order lines ask for more than is in stock.
+ * Carries every shortage so clients can fix the whole cart at once.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    public record Shortage(Long productId, String productName, int available, int requested) {
+    }
+
+    private final List<Shortage> shortages;
+
+    public InsufficientStockException(List<Shortage> shortages) {
+        super(describe(shortages.get(0)));
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<Shortage> getShortages() {
+        return shortages;
+    }
+
+    private static String describe(Shortage shortage) {
+        return "Insufficient stock for " + shortage.productName() +
+                ". Available: " + shortage.available() + ", Requested: " + shortage.requested();
+    }
+}
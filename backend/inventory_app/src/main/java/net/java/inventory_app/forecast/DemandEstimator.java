@@ -0,0 +1,101 @@
+package net.java.inventory_app.forecast;
+
+import net.java.inventory_app.entity.ForecastState;
+
+/**
+ * Demand estimation on a daily quantity history, kept incrementally in a ForecastState: Holt level and trend
+ * (exponential smoothing) plus the mean and variance of the last MOMENT_DAYS days, one constant-time fold per day.
+ * Prediction is daysAhead days of the level blended with that mean, plus the trend; the confidence score comes
+ * from the coefficient of variation. A primitive series is estimated by folding it into a fresh state, so the
+ * persisted states and the window fallbacks compute the same model. History starts at the first sale.
+ */
+public final class DemandEstimator {
+
+    public static final double SMOOTHING_ALPHA = 0.3; // Smoothing factor (0.2-0.3 is common)
+    public static final double TREND_BETA = 0.1; // Trend smoothing factor
+    public static final int MOMENT_DAYS = 30; // The mean and variance cover about the last 30 days, as the old window did
+    public static final int DEFAULT_DEMAND = 5;
+    public static final double NO_HISTORY_CONFIDENCE = 50.0;
+
+    private DemandEstimator() {
+    }
+
+    public record Estimate(int predictedDemand, double confidence) {
+    }
+
+    // Estimate demand from the first 'length' entries of the series (oldest first); days before the first sale
+    // are not history
+    public static Estimate estimate(int[] series, int length, int daysAhead) {
+        int firstSale = 0;
+        while (firstSale < length && series[firstSale] == 0) {
+            firstSale++;
+        }
+        ForecastState state = new ForecastState();
+        for (int i = firstSale; i < length; i++) {
+            fold(state, series[i]);
+        }
+        return estimate(state, daysAhead);
+    }
+
+    // Fold one day's quantity into the state, O(1). Mean and variance are exact (Welford) over the first
+    // MOMENT_DAYS days, then exponentially weighted with weight 1/MOMENT_DAYS, so older days fade out.
+    public static void fold(ForecastState state, int quantity) {
+        long count = state.getDayCount() + 1;
+        if (count == 1) {
+            state.setLevel((double) quantity);
+            state.setTrend(0.0);
+        } else {
+            double previousLevel = state.getLevel();
+            double level = SMOOTHING_ALPHA * quantity + (1 - SMOOTHING_ALPHA) * (previousLevel + state.getTrend());
+            state.setTrend(TREND_BETA * (level - previousLevel) + (1 - TREND_BETA) * state.getTrend());
+            state.setLevel(level);
+        }
+
+        // m2 / min(count, MOMENT_DAYS) is the variance
+        double delta = quantity - state.getMean();
+        if (count <= MOMENT_DAYS) {
+            double mean = state.getMean() + delta / count;
+            state.setM2(state.getM2() + delta * (quantity - mean));
+            state.setMean(mean);
+        } else {
+            double weight = 1.0 / MOMENT_DAYS;
+            state.setMean(state.getMean() + weight * delta);
+            state.setM2((1 - weight) * (state.getM2() + delta * delta));
+        }
+        state.setDayCount(count);
+    }
+
+    // Estimate from a folded state; daysAhead days of the level blended with the mean, plus the trend
+    public static Estimate estimate(ForecastState state, int daysAhead) {
+        long count = state.getDayCount();
+        if (count == 0) {
+            return new Estimate(DEFAULT_DEMAND, NO_HISTORY_CONFIDENCE);
+        }
+        double perDay = state.getLevel() * 0.7 + state.getMean() * 0.3;
+        double finalPrediction = perDay * daysAhead + state.getTrend() * daysAhead * (daysAhead + 1) / 2.0;
+        int predictedDemand = Math.max(1, (int) Math.ceil(finalPrediction));
+
+        double variance = state.getM2() / Math.min(count, MOMENT_DAYS);
+        return new Estimate(predictedDemand, confidence(count, state.getMean(), variance));
+    }
+
+    // Fallback when there is no sales history for the product
+    public static Estimate fromPurchaseCount(Integer purchaseCount, int daysAhead) {
+        if (purchaseCount != null && purchaseCount > 0) {
+            return new Estimate((int) Math.ceil(purchaseCount / 30.0 * daysAhead), NO_HISTORY_CONFIDENCE);
+        }
+        return new Estimate(DEFAULT_DEMAND, NO_HISTORY_CONFIDENCE);
+    }
+
+    // Lower variance = higher confidence
+    public static double confidence(long count, double mean, double variance) {
+        if (count == 0) return NO_HISTORY_CONFIDENCE;
+        if (count < 7) return 60.0;
+        if (count < 14) return 75.0;
+
+        double cv = Math.sqrt(variance) / mean; // Coefficient of variation
+        double confidence = Math.max(50, Math.min(95, 95 - (cv * 100)));
+
+        return Math.round(confidence * 100.0) / 100.0;
+    }
+}
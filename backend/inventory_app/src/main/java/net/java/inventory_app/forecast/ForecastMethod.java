@@ -0,0 +1,35 @@
+package net.java.inventory_app.forecast;
+
+import java.util.Locale;
+
+// How demand is predicted: the smoothing / trend / 30-day mean blend of DemandEstimator, or weekly Holt-Winters
+public enum ForecastMethod {
+    BLEND(null),
+    HOLT_WINTERS_ADDITIVE(HoltWinters.Seasonality.ADDITIVE),
+    HOLT_WINTERS_MULTIPLICATIVE(HoltWinters.Seasonality.MULTIPLICATIVE);
+
+    private final HoltWinters.Seasonality seasonality;
+
+    ForecastMethod(HoltWinters.Seasonality seasonality) {
+        this.seasonality = seasonality;
+    }
+
+    public boolean isSeasonal() {
+        return seasonality != null;
+    }
+
+    public HoltWinters.Seasonality getSeasonality() {
+        return seasonality;
+    }
+
+    // Accepts the enum name or a short form: blend, hw-additive, hw-multiplicative
+    public static ForecastMethod fromLabel(String label) {
+        String normalized = label.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        for (ForecastMethod method : values()) {
+            if (method.name().equals(normalized) || method.name().equals(normalized.replace("HW_", "HOLT_WINTERS_"))) {
+                return method;
+            }
+        }
+        throw new RuntimeException("Unknown forecast method: " + label + " (use blend, hw-additive or hw-multiplicative)");
+    }
+}
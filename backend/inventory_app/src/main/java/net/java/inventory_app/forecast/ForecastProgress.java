@@ -0,0 +1,78 @@
+package net.java.inventory_app.forecast;
+
+import net.java.inventory_app.entity.DemandForecast;
+import net.java.inventory_app.job.ProgressListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe progress counters for a catalog-wide forecast run.
+ * Workers report completed chunks; readers can sample it at any time.
+ */
+public class ForecastProgress {
+
+    private volatile int totalProducts;
+    private final AtomicInteger processedProducts = new AtomicInteger();
+    private final AtomicInteger failedProducts = new AtomicInteger();
+    private volatile long startedAtNanos;
+    private volatile long finishedAtNanos;
+    private final ProgressListener<? super DemandForecast> listener;
+
+    public ForecastProgress() {
+        this(ProgressListener.none());
+    }
+
+    public ForecastProgress(ProgressListener<? super DemandForecast> listener) {
+        this.listener = listener;
+    }
+
+    public void start(int totalProducts) {
+        this.totalProducts = totalProducts;
+        this.startedAtNanos = System.nanoTime();
+    }
+
+    // Called once a chunk of products has been forecast and written
+    public void chunkCompleted(List<DemandForecast> forecasts, int products) {
+        int processed = processedProducts.addAndGet(products);
+        listener.onPartialResults(forecasts);
+        listener.onProgress(processed, totalProducts);
+    }
+
+    public void fail() {
+        failedProducts.incrementAndGet();
+    }
+
+    public void finish() {
+        this.finishedAtNanos = System.nanoTime();
+    }
+
+    public int getTotalProducts() {
+        return totalProducts;
+    }
+
+    public int getProcessedProducts() {
+        return processedProducts.get();
+    }
+
+    public int getFailedProducts() {
+        return failedProducts.get();
+    }
+
+    public double getPercentComplete() {
+        if (totalProducts == 0) return finishedAtNanos != 0 ? 100.0 : 0.0;
+        return Math.round(processedProducts.get() * 10000.0 / totalProducts) / 100.0;
+    }
+
+    public long getElapsedMillis() {
+        if (startedAtNanos == 0) return 0;
+        long end = finishedAtNanos != 0 ? finishedAtNanos : System.nanoTime();
+        return (end - startedAtNanos) / 1_000_000;
+    }
+
+    public double getProductsPerSecond() {
+        long elapsed = getElapsedMillis();
+        if (elapsed == 0) return 0.0;
+        return Math.round(processedProducts.get() * 100000.0 / elapsed) / 100.0;
+    }
+}
@@ -0,0 +1,209 @@
+package net.java.inventory_app.forecast;
+
+import net.java.inventory_app.entity.ForecastState;
+import net.java.inventory_app.event.SalesRolledUpEvent;
+import net.java.inventory_app.repository.ForecastStateRepository;
+import net.java.inventory_app.repository.HistoricalSalesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Advances every product's ForecastState through the last day the sales rollup has closed (at most yesterday).
+ * Only historical_sales rows newer than the oldest state are read, and each closed day costs one constant-time
+ * fold; days without a sale after a product's first sale are folded as zero demand. Runs at startup and shortly
+ * after midnight, each time right after a rollup run, so a day is never folded before its sales are in.
+ * When the rollup adds sales to a day that was already folded (a backfill or a very late row), the products with
+ * sales from that day on are folded again from their first sale, as are states folded with another moment window.
+ */
+@Component
+public class ForecastStateUpdater {
+
+    private final HistoricalSalesRepository historicalSalesRepository;
+    private final ForecastStateRepository forecastStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesRollup salesRollup;
+    private volatile boolean ready;
+    private volatile LocalDate lastThrough;
+    private LocalDate backfilledFrom; // earliest day the rollup added to since the last update; guarded by this
+
+    @Autowired
+    public ForecastStateUpdater(HistoricalSalesRepository historicalSalesRepository,
+                                ForecastStateRepository forecastStateRepository,
+                                PlatformTransactionManager transactionManager,
+                                SalesRollup salesRollup) {
+        this.historicalSalesRepository = historicalSalesRepository;
+        this.forecastStateRepository = forecastStateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.salesRollup = salesRollup;
+    }
+
+    // True once the states have been brought up to date at least once since startup
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        scheduledUpdate();
+    }
+
+    @Scheduled(cron = "${inventory.forecast.state-cron:0 15 0 * * *}")
+    public void scheduledUpdate() {
+        try {
+            long start = System.currentTimeMillis();
+            // Not holding this lock: the rollup run publishes SalesRolledUpEvent, handled below
+            LocalDate through = salesRollup.catchUp();
+            if (through == null) {
+                System.out.println("Forecast states not advanced: the sales rollup has not completed a run yet");
+                return;
+            }
+            int states = update(through);
+            ready = true;
+            System.out.println("Forecast states advanced: " + states + " products in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("Forecast state update failed: " + e.getMessage());
+        }
+    }
+
+    // Sales landed on days already folded: refold now if the states are live, otherwise the next update does
+    @EventListener
+    public void onSalesRolledUp(SalesRolledUpEvent event) {
+        synchronized (this) {
+            if (backfilledFrom == null || event.since().isBefore(backfilledFrom)) {
+                backfilledFrom = event.since();
+            }
+        }
+        LocalDate through = lastThrough;
+        if (ready && through != null && !event.since().isAfter(through)) {
+            try {
+                int states = update(through);
+                System.out.println("Forecast states refolded after sales were added from " + event.since() + ": "
+                        + states + " products");
+            } catch (RuntimeException e) {
+                System.err.println("Forecast state refold failed, retried on the next update: " + e.getMessage());
+            }
+        }
+    }
+
+    // Fold every closed day up to and including 'through'; returns the number of states written
+    public synchronized int update(LocalDate through) {
+        LocalDate refoldFrom = backfilledFrom;
+        backfilledFrom = null;
+        Integer written;
+        try {
+            written = transactionTemplate.execute(status -> fold(through, refoldFrom));
+        } catch (RuntimeException e) {
+            if (refoldFrom != null && (backfilledFrom == null || refoldFrom.isBefore(backfilledFrom))) {
+                backfilledFrom = refoldFrom;
+            }
+            throw e;
+        }
+        lastThrough = through;
+        return written != null ? written : 0;
+    }
+
+    private int fold(LocalDate through, LocalDate refoldFrom) {
+        LocalDate after = forecastStateRepository.findOldestFoldedThrough();
+        Map<Long, ForecastState> states = new HashMap<>();
+        Set<Long> dirty = new HashSet<>(); // created or folded a sale this run
+        for (ForecastState state : forecastStateRepository.findAll()) {
+            states.put(state.getProductId(), state);
+        }
+
+        // Products with sales on a day they already folded start over, so their whole history is read again
+        Set<Long> refold = new HashSet<>();
+        for (ForecastState state : states.values()) {
+            if (!Integer.valueOf(DemandEstimator.MOMENT_DAYS).equals(state.getMomentDays())) {
+                refold.add(state.getProductId());
+            }
+        }
+        if (refoldFrom != null && !refoldFrom.isAfter(through)) {
+            for (Long productId : historicalSalesRepository.findProductIdsWithSalesBetween(refoldFrom, through)) {
+                ForecastState state = states.get(productId);
+                if (state != null && !state.getFoldedThrough().isBefore(refoldFrom)) {
+                    refold.add(productId);
+                }
+            }
+        }
+        if (!refold.isEmpty()) {
+            after = null;
+        }
+
+        try (Stream<Object[]> rows = historicalSalesRepository.streamDailySalesAfter(after, through)) {
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                Long productId = (Long) row[0];
+                LocalDate saleDate = (LocalDate) row[1];
+                ForecastState state = states.computeIfAbsent(productId, id -> {
+                    ForecastState created = new ForecastState(id, saleDate.minusDays(1));
+                    created.setMomentDays(DemandEstimator.MOMENT_DAYS);
+                    return created;
+                });
+                if (refold.remove(productId)) {
+                    reset(state, saleDate.minusDays(1));
+                }
+                if (!saleDate.isAfter(state.getFoldedThrough())) {
+                    continue; // already folded by an earlier run
+                }
+                foldZeroDays(state, saleDate.minusDays(1));
+                DemandEstimator.fold(state, ((Number) row[2]).intValue());
+                state.setFoldedThrough(saleDate);
+                dirty.add(productId);
+            }
+        }
+
+        // Loaded states are managed and flushed on commit if they moved; only new ones need saving
+        List<ForecastState> created = new ArrayList<>();
+        int advanced = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (ForecastState state : states.values()) {
+            LocalDate before = state.getFoldedThrough();
+            foldZeroDays(state, through);
+            if (state.getVersion() == null) {
+                created.add(state);
+            }
+            if (dirty.contains(state.getProductId()) || !before.equals(state.getFoldedThrough())) {
+                state.setUpdatedAt(now);
+                advanced++;
+            }
+        }
+        forecastStateRepository.saveAll(created);
+        return advanced;
+    }
+
+    // Back to the state of a product first seen on the day after foldedThrough
+    private static void reset(ForecastState state, LocalDate foldedThrough) {
+        state.setLevel(0.0);
+        state.setTrend(0.0);
+        state.setDayCount(0L);
+        state.setMean(0.0);
+        state.setM2(0.0);
+        state.setMomentDays(DemandEstimator.MOMENT_DAYS);
+        state.setFoldedThrough(foldedThrough);
+    }
+
+    // Days between the last folded day and 'until' had no sales row
+    private static void foldZeroDays(ForecastState state, LocalDate until) {
+        while (state.getFoldedThrough().isBefore(until)) {
+            DemandEstimator.fold(state, 0);
+            state.setFoldedThrough(state.getFoldedThrough().plusDays(1));
+        }
+    }
+}
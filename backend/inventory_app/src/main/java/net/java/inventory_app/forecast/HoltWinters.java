@@ -0,0 +1,122 @@
+package net.java.inventory_app.forecast;
+
+/**
+ * Holt-Winters triple exponential smoothing with a weekly season, additive or multiplicative, on a primitive
+ * series of daily quantities (oldest first). Smoothing parameters are fitted per series by a grid search on the
+ * one-step-ahead squared error; every candidate is one pass over the series that updates a small double[] in
+ * place, so fitting allocates nothing per step and a whole catalog fits in seconds.
+ */
+public final class HoltWinters {
+
+    public static final int SEASON_LENGTH = 7;
+    public static final int MIN_HISTORY = 2 * SEASON_LENGTH; // one season to initialise, one to fit on
+
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5, 0.7};
+    private static final double[] BETAS = {0.0, 0.02, 0.05, 0.1, 0.2};
+    private static final double[] GAMMAS = {0.05, 0.1, 0.2, 0.3, 0.5};
+    private static final double EPSILON = 1e-9;
+
+    // state layout: level, trend, then one factor per weekday slot
+    private static final int LEVEL = 0;
+    private static final int TREND = 1;
+    private static final int SEASON = 2;
+
+    public enum Seasonality {
+        ADDITIVE, MULTIPLICATIVE
+    }
+
+    private HoltWinters() {
+    }
+
+    /**
+     * Fit on series[from, to) and predict the total of daysAhead days starting skipDays days after the series ends
+     * (skipDays 0: the day at index 'to'), so the weekday factors match the days actually forecast.
+     * Returns null when fewer than MIN_HISTORY days are given, so the caller can fall back.
+     */
+    public static DemandEstimator.Estimate estimate(int[] series, int from, int to, int skipDays, int daysAhead,
+                                                    Seasonality seasonality) {
+        int length = to - from;
+        if (length < MIN_HISTORY) {
+            return null;
+        }
+        boolean multiplicative = seasonality == Seasonality.MULTIPLICATIVE && weekMean(series, from) > EPSILON;
+
+        double[] state = new double[SEASON + SEASON_LENGTH];
+        double[] best = new double[SEASON + SEASON_LENGTH];
+        double bestSse = Double.MAX_VALUE;
+        for (double alpha : ALPHAS) {
+            for (double beta : BETAS) {
+                for (double gamma : GAMMAS) {
+                    double sse = run(series, from, to, alpha, beta, gamma, multiplicative, state);
+                    if (sse < bestSse) {
+                        bestSse = sse;
+                        System.arraycopy(state, 0, best, 0, state.length);
+                    }
+                }
+            }
+        }
+
+        double total = 0;
+        for (int h = skipDays + 1; h <= skipDays + daysAhead; h++) {
+            double season = best[SEASON + (length + h - 1) % SEASON_LENGTH];
+            double base = best[LEVEL] + h * best[TREND];
+            total += Math.max(0, multiplicative ? base * season : base + season);
+        }
+        int predictedDemand = Math.max(1, (int) Math.ceil(total));
+
+        // Confidence from the fitted one-step error relative to the mean, like the other estimators
+        double mean = 0;
+        for (int i = from; i < to; i++) {
+            mean += series[i];
+        }
+        mean /= length;
+        int fitted = length - SEASON_LENGTH;
+        return new DemandEstimator.Estimate(predictedDemand, DemandEstimator.confidence(length, mean, bestSse / fitted));
+    }
+
+    // One smoothing pass with fixed parameters; leaves the final components in state and returns the SSE
+    static double run(int[] series, int from, int to, double alpha, double beta, double gamma,
+                      boolean multiplicative, double[] state) {
+        // First week sets the level and weekday factors, the change to the second week the trend
+        double level = weekMean(series, from);
+        double trend = (weekMean(series, from + SEASON_LENGTH) - level) / SEASON_LENGTH;
+        for (int i = 0; i < SEASON_LENGTH; i++) {
+            int quantity = series[from + i];
+            state[SEASON + i] = multiplicative ? quantity / level : quantity - level;
+        }
+
+        double sse = 0;
+        for (int t = from + SEASON_LENGTH; t < to; t++) {
+            int slot = SEASON + (t - from) % SEASON_LENGTH;
+            double season = state[slot];
+            double quantity = series[t];
+            double base = level + trend;
+            double error = quantity - (multiplicative ? base * season : base + season);
+            sse += error * error;
+
+            double newLevel;
+            if (multiplicative) {
+                newLevel = season > EPSILON ? alpha * (quantity / season) + (1 - alpha) * base : base;
+                if (newLevel > EPSILON) {
+                    state[slot] = gamma * (quantity / newLevel) + (1 - gamma) * season;
+                }
+            } else {
+                newLevel = alpha * (quantity - season) + (1 - alpha) * base;
+                state[slot] = gamma * (quantity - newLevel) + (1 - gamma) * season;
+            }
+            trend = beta * (newLevel - level) + (1 - beta) * trend;
+            level = newLevel;
+        }
+        state[LEVEL] = level;
+        state[TREND] = trend;
+        return sse;
+    }
+
+    private static double weekMean(int[] series, int from) {
+        long total = 0;
+        for (int i = from; i < from + SEASON_LENGTH; i++) {
+            total += series[i];
+        }
+        return (double) total / SEASON_LENGTH;
+    }
+}
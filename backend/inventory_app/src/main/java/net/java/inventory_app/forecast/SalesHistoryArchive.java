@@ -0,0 +1,414 @@
+package net.java.inventory_app.forecast;
+
+import net.java.inventory_app.repository.HistoricalSalesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Multi-year per-product daily sales in one compact file, memory-mapped read-only so reads decode straight from
+ * the page cache without loading entities or copying the file onto the heap.
+ * <p>
+ * Layout: a fixed header, then per product an int offset table and its blocks of BLOCK_DAYS days, then a
+ * directory of (productId, offset) pairs sorted by product id. Every product covers the same dense day range
+ * (days without a historical_sales row are zero); inside a block each day is stored as the zigzag varint of its
+ * difference to the previous day, so flat and empty stretches take one byte per day and any block decodes on
+ * its own. The file is rebuilt from historical_sales at startup when missing or stale and every night, each time
+ * right after a sales rollup run and only through the last day that run closed, so no day is archived half-filled.
+ */
+@Component
+public class SalesHistoryArchive {
+
+    static final int MAGIC = 0x53484131; // "SHA1"
+    static final int VERSION = 1;
+    static final int BLOCK_DAYS = 64;
+    static final int HEADER_BYTES = 40;
+    private static final int DIRECTORY_ENTRY_BYTES = 16;
+
+    private final HistoricalSalesRepository historicalSalesRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final SalesRollup salesRollup;
+
+    private volatile Archive archive;
+    private volatile long lastBuildMillis;
+    private volatile LocalDateTime lastBuiltAt;
+
+    @Value("${inventory.sales-archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${inventory.sales-archive.path:data/sales-history.bin}")
+    private String path = "data/sales-history.bin";
+
+    @Autowired
+    public SalesHistoryArchive(HistoricalSalesRepository historicalSalesRepository,
+                               PlatformTransactionManager transactionManager,
+                               SalesRollup salesRollup) {
+        this.historicalSalesRepository = historicalSalesRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.salesRollup = salesRollup;
+    }
+
+    // Map the existing file, rebuilding it first if it does not reach the last day the rollup has closed
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path file = Path.of(path);
+            if (Files.exists(file)) {
+                archive = Archive.map(file);
+            }
+            LocalDate through = salesRollup.catchUp();
+            if (through != null && (archive == null || archive.lastDay().isBefore(through))) {
+                rebuild(through);
+            } else if (archive != null) {
+                System.out.println("Sales history archive opened: " + archive.productCount() + " products x "
+                        + archive.dayCount() + " days");
+            } else {
+                System.out.println("Sales history archive not built: the sales rollup has not completed a run yet");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Sales history archive not opened: " + e.getMessage());
+        }
+    }
+
+    // After the forecast states; the rollup runs first, so the previous day is closed
+    @Scheduled(cron = "${inventory.sales-archive.rebuild-cron:0 30 0 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                System.err.println("Sales history archive rebuild failed, keeping the previous file: " + e.getMessage());
+            }
+        }
+    }
+
+    // Bring the rollup up to date, then re-encode all of historical_sales through its last closed day
+    public Map<String, Object> rebuild() {
+        LocalDate through = salesRollup.catchUp();
+        if (through == null) {
+            throw new RuntimeException("The sales rollup has not completed a run yet; rebuild after it has");
+        }
+        return rebuild(through);
+    }
+
+    // Re-encode all of historical_sales up to 'through' into a new file and swap it in
+    private synchronized Map<String, Object> rebuild(LocalDate through) {
+        long start = System.currentTimeMillis();
+        LocalDate first = historicalSalesRepository.findFirstSaleDate();
+        if (first == null || first.isAfter(through)) {
+            first = through;
+        }
+
+        Path file = Path.of(path).toAbsolutePath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            write(temp, first, through);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write sales history archive " + file, e);
+        }
+        archive = Archive.map(file);
+        lastBuildMillis = System.currentTimeMillis() - start;
+        lastBuiltAt = LocalDateTime.now();
+        System.out.println("Sales history archive built: " + archive.productCount() + " products x "
+                + archive.dayCount() + " days, " + archive.sizeInBytes() + " bytes in " + lastBuildMillis + " ms");
+        return getStats();
+    }
+
+    public boolean isReady() {
+        return archive != null;
+    }
+
+    // First and last archived day; null until the archive is open
+    public LocalDate getFirstDay() {
+        Archive current = archive;
+        return current != null ? current.firstDay() : null;
+    }
+
+    public LocalDate getLastDay() {
+        Archive current = archive;
+        return current != null ? current.lastDay() : null;
+    }
+
+    // Ids of every archived product, ascending
+    public long[] productIds() {
+        Archive current = archive;
+        if (current == null) {
+            return new long[0];
+        }
+        long[] ids = new long[current.productCount()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = current.productIdAt(i);
+        }
+        return ids;
+    }
+
+    // Daily quantities from 'from' to 'to' inclusive, oldest first; zero outside the archive or for unknown products
+    public int[] dailyQuantities(long productId, LocalDate from, LocalDate to) {
+        Archive current = archive;
+        if (current == null) {
+            throw new RuntimeException("Sales history archive is not open");
+        }
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Range end " + to + " is before its start " + from);
+        }
+        return current.decode(productId, from.toEpochDay(), to.toEpochDay());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        Archive current = archive;
+        stats.put("enabled", enabled);
+        stats.put("path", path);
+        stats.put("ready", current != null);
+        stats.put("lastBuildMillis", lastBuildMillis);
+        stats.put("lastBuiltAt", lastBuiltAt);
+        if (current != null) {
+            long rawBytes = (long) current.productCount() * current.dayCount() * Integer.BYTES;
+            stats.put("products", current.productCount());
+            stats.put("days", current.dayCount());
+            stats.put("firstDay", current.firstDay());
+            stats.put("lastDay", current.lastDay());
+            stats.put("blockDays", current.blockDays());
+            stats.put("fileBytes", current.sizeInBytes());
+            stats.put("compressionRatio", current.sizeInBytes() > 0 ? (double) rawBytes / current.sizeInBytes() : 0);
+        }
+        return stats;
+    }
+
+    private void write(Path temp, LocalDate first, LocalDate through) throws IOException {
+        long firstDay = first.toEpochDay();
+        int dayCount = (int) (through.toEpochDay() - firstDay + 1);
+        int blockCount = (dayCount + BLOCK_DAYS - 1) / BLOCK_DAYS;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE), 1 << 16))) {
+            out.write(new byte[HEADER_BYTES]);
+            ProductWriter writer = new ProductWriter(out, firstDay, dayCount, blockCount);
+            readOnlyTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = historicalSalesRepository.streamDailySalesAfter(null, through)) {
+                    for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                        Object[] row = it.next();
+                        writer.add((Long) row[0], ((LocalDate) row[1]).toEpochDay(), ((Number) row[2]).intValue());
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            long directoryOffset = writer.position;
+            for (int i = 0; i < writer.productCount; i++) {
+                out.writeLong(writer.productIds[i]);
+                out.writeLong(writer.offsets[i]);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(firstDay).putInt(dayCount).putInt(BLOCK_DAYS)
+                    .putInt(writer.productCount).putLong(directoryOffset);
+            header.flip();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(header, 0);
+            }
+        }
+    }
+
+    // Collects one product's dense series from the ordered rows and appends it encoded
+    private static final class ProductWriter {
+        private final DataOutputStream out;
+        private final long firstDay;
+        private final int[] series;
+        private final int blockCount;
+        private final byte[] scratch;
+        private long[] productIds = new long[1024];
+        private long[] offsets = new long[1024];
+        private int productCount;
+        private long position = HEADER_BYTES;
+        private Long current;
+
+        private ProductWriter(DataOutputStream out, long firstDay, int dayCount, int blockCount) {
+            this.out = out;
+            this.firstDay = firstDay;
+            this.series = new int[dayCount];
+            this.blockCount = blockCount;
+            this.scratch = new byte[dayCount * 5];
+        }
+
+        private void add(Long productId, long epochDay, int quantity) throws IOException {
+            if (!productId.equals(current)) {
+                flush();
+                current = productId;
+            }
+            long index = epochDay - firstDay;
+            if (index >= 0 && index < series.length) {
+                series[(int) index] += quantity;
+            }
+        }
+
+        private void flush() throws IOException {
+            if (current == null) {
+                return;
+            }
+            if (productCount == productIds.length) {
+                productIds = Arrays.copyOf(productIds, productCount * 2);
+                offsets = Arrays.copyOf(offsets, productCount * 2);
+            }
+            productIds[productCount] = current;
+            offsets[productCount] = position;
+            productCount++;
+
+            // Offset table first (relative to the product start), then the blocks
+            int length = 0;
+            int[] blockOffsets = new int[blockCount];
+            for (int block = 0; block < blockCount; block++) {
+                blockOffsets[block] = blockCount * Integer.BYTES + length;
+                length = encodeBlock(series, block * BLOCK_DAYS,
+                        Math.min(series.length, (block + 1) * BLOCK_DAYS), scratch, length);
+            }
+            for (int offset : blockOffsets) {
+                out.writeInt(offset);
+            }
+            out.write(scratch, 0, length);
+            position += (long) blockCount * Integer.BYTES + length;
+
+            Arrays.fill(series, 0);
+            current = null;
+        }
+    }
+
+    // Zigzag varint of each day's change from the previous day; the first day of a block is relative to zero
+    static int encodeBlock(int[] series, int from, int to, byte[] target, int position) {
+        int previous = 0;
+        for (int i = from; i < to; i++) {
+            int delta = series[i] - previous;
+            previous = series[i];
+            int zigzag = (delta << 1) ^ (delta >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                target[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            target[position++] = (byte) zigzag;
+        }
+        return position;
+    }
+
+    // A mapped archive file; only absolute reads are used, so one buffer serves every thread
+    private record Archive(MappedByteBuffer buffer, long firstEpochDay, int dayCount, int blockDays,
+                           int productCount, int directoryOffset) {
+
+        private static Archive map(Path file) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new RuntimeException("Sales history archive larger than 2 GB: " + file);
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new RuntimeException("Not a sales history archive (version " + VERSION + "): " + file);
+                }
+                return new Archive(buffer, buffer.getLong(8), buffer.getInt(16), buffer.getInt(20),
+                        buffer.getInt(24), (int) buffer.getLong(28));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map sales history archive " + file, e);
+            }
+        }
+
+        private LocalDate firstDay() {
+            return LocalDate.ofEpochDay(firstEpochDay);
+        }
+
+        private LocalDate lastDay() {
+            return LocalDate.ofEpochDay(firstEpochDay + dayCount - 1);
+        }
+
+        private long sizeInBytes() {
+            return buffer.capacity();
+        }
+
+        private long productIdAt(int index) {
+            return buffer.getLong(directoryOffset + index * DIRECTORY_ENTRY_BYTES);
+        }
+
+        // Binary search of the sorted directory; -1 when absent
+        private int productStart(long productId) {
+            int low = 0;
+            int high = productCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long id = productIdAt(mid);
+                if (id < productId) {
+                    low = mid + 1;
+                } else if (id > productId) {
+                    high = mid - 1;
+                } else {
+                    return (int) buffer.getLong(directoryOffset + mid * DIRECTORY_ENTRY_BYTES + Long.BYTES);
+                }
+            }
+            return -1;
+        }
+
+        // Decode only the blocks overlapping [fromDay, toDay]
+        private int[] decode(long productId, long fromDay, long toDay) {
+            int[] result = new int[(int) (toDay - fromDay + 1)];
+            int start = productStart(productId);
+            long first = Math.max(fromDay, firstEpochDay) - firstEpochDay;
+            long last = Math.min(toDay, firstEpochDay + dayCount - 1) - firstEpochDay;
+            if (start < 0 || first > last) {
+                return result;
+            }
+            for (int block = (int) (first / blockDays); block <= last / blockDays; block++) {
+                int position = start + buffer.getInt(start + block * Integer.BYTES);
+                int day = block * blockDays;
+                int end = Math.min(dayCount, day + blockDays);
+                int value = 0;
+                for (; day < end && day <= last; day++) {
+                    int zigzag = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        b = buffer.get(position++);
+                        zigzag |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    value += (zigzag >>> 1) ^ -(zigzag & 1);
+                    if (day >= first) {
+                        result[(int) (firstEpochDay + day - fromDay)] = value;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
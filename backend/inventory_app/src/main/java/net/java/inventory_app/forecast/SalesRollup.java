@@ -0,0 +1,221 @@
+package net.java.inventory_app.forecast;
+
+import net.java.inventory_app.entity.LedgerCheckpoint;
+import net.java.inventory_app.entity.Transaction;
+import net.java.inventory_app.event.SalesRolledUpEvent;
+import net.java.inventory_app.repository.HistoricalSalesRepository;
+import net.java.inventory_app.repository.HistoricalSalesRepositoryCustom.RollupResult;
+import net.java.inventory_app.repository.LedgerCheckpointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Keeps historical_sales (per product per day quantity and revenue) up to date for the forecasts.
+ * Every run folds only the order items and non-order STOCK_OUT transactions added since the last run, using the
+ * highest processed id of each source as a high-water mark (stored in ledger_checkpoints). The fold is an
+ * INSERT ... SELECT ... ON DUPLICATE KEY UPDATE that adds to existing day rows, and it commits in the same
+ * transaction as the new mark, so each source row is counted exactly once. The upsert needs the unique key on
+ * (product_id, sale_date), so the first run merges any duplicate day rows and adds it when ddl-auto could not.
+ * A source without a mark yet starts after the newest day already in historical_sales, so seeded days are kept
+ * as they are instead of being counted twice.
+ */
+@Component
+public class SalesRollup {
+
+    private static final String ORDERS_CHECKPOINT = "sales-rollup-orders";
+    private static final String STOCK_OUTS_CHECKPOINT = "sales-rollup-stock-outs";
+
+    private final HistoricalSalesRepository historicalSalesRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile long runCount;
+    private volatile long failedRunCount;
+    private volatile long lastRunMillis;
+    private volatile LocalDateTime lastRunAt;
+    private volatile LocalDateTime lastSettledBefore;
+    private volatile long orderItemsFolded;
+    private volatile long stockOutsFolded;
+    private boolean uniqueKeyVerified;
+    private boolean checkpointsCreated;
+
+    @Value("${inventory.sales-rollup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${inventory.sales-rollup.include-stock-outs:true}")
+    private boolean includeStockOuts = true;
+
+    // Rows younger than this are left for the next run, so transactions still committing are not skipped
+    @Value("${inventory.sales-rollup.settle-seconds:30}")
+    private long settleSeconds = 30;
+
+    @Autowired
+    public SalesRollup(HistoricalSalesRepository historicalSalesRepository,
+                       LedgerCheckpointRepository checkpointRepository,
+                       PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher eventPublisher) {
+        this.historicalSalesRepository = historicalSalesRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sales-rollup.interval-ms:60000}",
+               initialDelayString = "${inventory.sales-rollup.interval-ms:60000}")
+    public void scheduledRun() {
+        if (enabled) {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                failedRunCount++;
+                System.err.println("Sales rollup failed, will retry next run: " + e.getMessage());
+            }
+        }
+    }
+
+    // Fold everything settled since the last run; returns the number of source rows folded
+    public synchronized long run() {
+        long start = System.currentTimeMillis();
+        ensureUniqueKey();
+        ensureCheckpoints();
+        LocalDateTime settledBefore = LocalDateTime.now().minusSeconds(settleSeconds);
+
+        RollupResult orders = fold(ORDERS_CHECKPOINT,
+                afterId -> historicalSalesRepository.rollUpOrderItems(afterId, settledBefore));
+        RollupResult stockOuts = !includeStockOuts ? null : fold(STOCK_OUTS_CHECKPOINT,
+                afterId -> historicalSalesRepository.rollUpStockOuts(afterId, settledBefore, Transaction.ORDER_HANDLER_PREFIX));
+        long orderRows = orders != null ? orders.sourceRows() : 0;
+        long stockOutRows = stockOuts != null ? stockOuts.sourceRows() : 0;
+
+        orderItemsFolded += orderRows;
+        stockOutsFolded += stockOutRows;
+        runCount++;
+        lastRunAt = LocalDateTime.now();
+        lastRunMillis = System.currentTimeMillis() - start;
+        if (orderRows + stockOutRows > 0) {
+            System.out.println("Sales rollup: folded " + orderRows + " order items and " + stockOutRows
+                    + " transactions in " + lastRunMillis + " ms");
+            // The earliest day touched, which is before yesterday only for backfilled or very late rows
+            LocalDate since = earlier(orders != null ? orders.firstDay() : null,
+                    stockOuts != null ? stockOuts.firstDay() : null);
+            eventPublisher.publishEvent(new SalesRolledUpEvent(since != null ? since : settledBefore.toLocalDate(),
+                    orderRows + stockOutRows));
+        }
+        lastSettledBefore = settledBefore;
+        return orderRows + stockOutRows;
+    }
+
+    // Run now unless disabled, then return the last day whose sales are all in historical_sales
+    public LocalDate catchUp() {
+        if (enabled) {
+            run();
+        }
+        return getClosedThrough();
+    }
+
+    // The day before the last successful run's settle cutoff; null until a run succeeded. With the rollup disabled
+    // historical_sales is maintained elsewhere and every day before today counts as closed.
+    public LocalDate getClosedThrough() {
+        if (!enabled) {
+            return LocalDate.now().minusDays(1);
+        }
+        LocalDateTime settled = lastSettledBefore;
+        return settled != null ? settled.toLocalDate().minusDays(1) : null;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("includeStockOuts", includeStockOuts);
+        stats.put("runCount", runCount);
+        stats.put("failedRunCount", failedRunCount);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("closedThrough", getClosedThrough());
+        stats.put("orderItemsFolded", orderItemsFolded);
+        stats.put("stockOutsFolded", stockOutsFolded);
+        checkpointRepository.findById(ORDERS_CHECKPOINT)
+                .ifPresent(c -> stats.put("orderItemsHighWaterMark", c.getLastTransactionId()));
+        checkpointRepository.findById(STOCK_OUTS_CHECKPOINT)
+                .ifPresent(c -> stats.put("stockOutsHighWaterMark", c.getLastTransactionId()));
+        return stats;
+    }
+
+    // Without the key every run would insert new duplicates; a failure here fails the run, which retries it
+    private void ensureUniqueKey() {
+        if (!uniqueKeyVerified) {
+            Integer merged = transactionTemplate.execute(status -> historicalSalesRepository.ensureUniqueKey());
+            if (merged != null && merged > 0) {
+                System.out.println("Merged " + merged + " duplicate historical_sales rows before adding the unique key");
+            }
+            uniqueKeyVerified = true;
+        }
+    }
+
+    // Both marks are created together from the same newest seeded day, before either source adds days to it
+    private void ensureCheckpoints() {
+        if (checkpointsCreated) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            boolean ordersMissing = !checkpointRepository.existsById(ORDERS_CHECKPOINT);
+            boolean stockOutsMissing = !checkpointRepository.existsById(STOCK_OUTS_CHECKPOINT);
+            if (!ordersMissing && !stockOutsMissing) {
+                return;
+            }
+            LocalDate seededThrough = historicalSalesRepository.findLastSaleDate();
+            if (ordersMissing) {
+                createCheckpoint(ORDERS_CHECKPOINT, seededThrough, historicalSalesRepository::orderItemsMarkAfter);
+            }
+            if (stockOutsMissing) {
+                createCheckpoint(STOCK_OUTS_CHECKPOINT, seededThrough, historicalSalesRepository::stockOutsMarkAfter);
+            }
+        });
+        checkpointsCreated = true;
+    }
+
+    private void createCheckpoint(String name, LocalDate seededThrough, Function<LocalDate, Long> markAfter) {
+        LedgerCheckpoint checkpoint = new LedgerCheckpoint(name);
+        if (seededThrough != null) {
+            checkpoint.setLastTransactionId(markAfter.apply(seededThrough));
+            System.out.println("Sales rollup " + name + " starts after " + seededThrough
+                    + ", the newest day already in historical_sales");
+        }
+        checkpointRepository.save(checkpoint);
+    }
+
+    // Returns what was folded, or null when nothing new had settled
+    private RollupResult fold(String checkpointName, LongFunction<RollupResult> rollUp) {
+        return transactionTemplate.execute(status -> {
+            LedgerCheckpoint checkpoint = checkpointRepository.findByNameForUpdate(checkpointName)
+                    .orElseGet(() -> new LedgerCheckpoint(checkpointName));
+            RollupResult result = rollUp.apply(checkpoint.getLastTransactionId());
+            if (result.highWaterMark() == checkpoint.getLastTransactionId()) {
+                return null;
+            }
+            checkpoint.setLastTransactionId(result.highWaterMark());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+            return result;
+        });
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+}
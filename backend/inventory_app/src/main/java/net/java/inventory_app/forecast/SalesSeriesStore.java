@@ -0,0 +1,322 @@
+package net.java.inventory_app.forecast;
+
+import net.java.inventory_app.event.SalesRolledUpEvent;
+import net.java.inventory_app.repository.HistoricalSalesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Daily quantity and revenue of every product over the last inventory.sales-series.days days, held in two flat
+ * primitive arrays (one row of days slots per product, slot = epoch day modulo days). Days without a
+ * historical_sales row are zeros, so a series is always dense and oldest-first without any grouping or sorting.
+ * Loaded once at startup and refreshed from the days touched by each sales rollup; moving to a new day only
+ * clears the slots that fell out of the window.
+ */
+@Component
+public class SalesSeriesStore {
+
+    // Rough heap cost of one HashMap entry boxed Long -> Integer (node, key, value, table slot)
+    private static final int INDEX_BYTES_PER_PRODUCT = 72;
+
+    private final HistoricalSalesRepository historicalSalesRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> rows = new HashMap<>();
+    private int[] quantities = new int[0];
+    private double[] revenue = new double[0];
+    private int capacity;
+    private long headDay = Long.MIN_VALUE;
+    private volatile boolean ready;
+    private volatile long lastLoadMillis;
+
+    @Value("${inventory.sales-series.days:90}")
+    private int days = 90;
+
+    @Autowired
+    public SalesSeriesStore(HistoricalSalesRepository historicalSalesRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.historicalSalesRepository = historicalSalesRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    // Load the whole window once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long start = System.currentTimeMillis();
+        try {
+            LocalDate today = LocalDate.now();
+            // Not ready yet, so nobody waits on the lock while the window streams in
+            lock.writeLock().lock();
+            try {
+                rows.clear();
+                capacity = 0;
+                quantities = new int[0];
+                revenue = new double[0];
+                headDay = today.toEpochDay();
+                readSales(today.minusDays(days - 1), today, this::apply);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastLoadMillis = System.currentTimeMillis() - start;
+            System.out.println("Sales series store loaded: " + rows.size() + " products x " + days + " days in "
+                    + lastLoadMillis + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("Sales series store not loaded, readers fall back to queries: " + e.getMessage());
+        }
+    }
+
+    // Re-read the days the rollup may have added to; their slots are overwritten with the current totals
+    @EventListener
+    public synchronized void onSalesRolledUp(SalesRolledUpEvent event) {
+        if (!ready) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate from = event.since().isAfter(today.minusDays(days - 1)) ? event.since() : today.minusDays(days - 1);
+        try {
+            // Copied out first, so the write lock is not held across the query
+            List<Object[]> sales = new ArrayList<>();
+            readSales(from, today, sales::add);
+            lock.writeLock().lock();
+            try {
+                advanceTo(today.toEpochDay());
+                for (long day = from.toEpochDay(); day <= headDay; day++) {
+                    clearSlot(slot(day));
+                }
+                sales.forEach(this::apply);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Sales series refresh failed, reloading on next start: " + e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    // Daily quantities of the last n days up to today, oldest first; zeros for an unknown product
+    public int[] dailyQuantities(long productId, int n) {
+        int length = clamp(n);
+        int[] series = new int[length];
+        readRow(productId, length, (i, offset) -> series[i] = quantities[offset]);
+        return series;
+    }
+
+    // Daily revenue of the last n days up to today, oldest first
+    public double[] dailyRevenue(long productId, int n) {
+        int length = clamp(n);
+        double[] series = new double[length];
+        readRow(productId, length, (i, offset) -> series[i] = revenue[offset]);
+        return series;
+    }
+
+    // Units sold over the last n days, including today
+    public long totalQuantity(long productId, int n) {
+        long total = 0;
+        for (int quantity : dailyQuantities(productId, n)) {
+            total += quantity;
+        }
+        return total;
+    }
+
+    public double averageDailyQuantity(long productId, int n) {
+        int length = clamp(n);
+        return length == 0 ? 0 : (double) totalQuantity(productId, length) / length;
+    }
+
+    // Whole-catalog quantity and revenue per day over the last n days, oldest first
+    public Map<String, Object> catalogTotals(int n) {
+        int length = clamp(n);
+        int[] dailyQuantity = new int[length];
+        double[] dailyRevenue = new double[length];
+        LocalDate today = LocalDate.now();
+        ensureCurrent(today.toEpochDay());
+        lock.readLock().lock();
+        try {
+            int[] slots = slots(length);
+            for (int row = 0; row < rows.size(); row++) {
+                int base = row * days;
+                for (int i = 0; i < length; i++) {
+                    dailyQuantity[i] += quantities[base + slots[i]];
+                    dailyRevenue[i] += revenue[base + slots[i]];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<String> dates = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            dates.add(today.minusDays(length - 1 - i).toString());
+        }
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("dates", dates);
+        totals.put("quantities", dailyQuantity);
+        totals.put("revenue", dailyRevenue);
+        return totals;
+    }
+
+    // Heap used by the arrays now, and what they cost per product and per 10k products at this window length
+    public Map<String, Object> getMemoryReport() {
+        lock.readLock().lock();
+        try {
+            long bytesPerProduct = (long) days * (Integer.BYTES + Double.BYTES);
+            Map<String, Object> report = new HashMap<>();
+            report.put("ready", ready);
+            report.put("days", days);
+            report.put("products", rows.size());
+            report.put("capacity", capacity);
+            report.put("bytesPerProduct", bytesPerProduct + INDEX_BYTES_PER_PRODUCT);
+            report.put("bytesPer10kProducts", 10_000L * (bytesPerProduct + INDEX_BYTES_PER_PRODUCT));
+            report.put("usedBytes", rows.size() * (bytesPerProduct + INDEX_BYTES_PER_PRODUCT));
+            report.put("allocatedBytes", (long) quantities.length * Integer.BYTES + (long) revenue.length * Double.BYTES
+                    + (long) rows.size() * INDEX_BYTES_PER_PRODUCT);
+            report.put("lastLoadMillis", lastLoadMillis);
+            return report;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private interface SlotReader {
+        void read(int index, int offset);
+    }
+
+    private void readRow(long productId, int length, SlotReader reader) {
+        ensureCurrent(LocalDate.now().toEpochDay());
+        lock.readLock().lock();
+        try {
+            Integer row = rows.get(productId);
+            if (row == null) {
+                return;
+            }
+            int base = row * days;
+            int[] slots = slots(length);
+            for (int i = 0; i < length; i++) {
+                reader.read(i, base + slots[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Slots of the last length days ending at the head day, oldest first
+    private int[] slots(int length) {
+        int[] slots = new int[length];
+        for (int i = 0; i < length; i++) {
+            slots[i] = slot(headDay - (length - 1 - i));
+        }
+        return slots;
+    }
+
+    private int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) days);
+    }
+
+    private int clamp(int n) {
+        return Math.max(0, Math.min(n, days));
+    }
+
+    private void ensureCurrent(long today) {
+        if (!ready) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (today <= headDay) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            advanceTo(today);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Move the head to a new day, zeroing the slots of the days that left the window; caller holds the write lock
+    private void advanceTo(long today) {
+        if (today <= headDay) {
+            return;
+        }
+        if (today - headDay >= days) {
+            Arrays.fill(quantities, 0);
+            Arrays.fill(revenue, 0);
+        } else {
+            for (long day = headDay + 1; day <= today; day++) {
+                clearSlot(slot(day));
+            }
+        }
+        headDay = today;
+    }
+
+    private void clearSlot(int slot) {
+        for (int row = 0; row < rows.size(); row++) {
+            quantities[row * days + slot] = 0;
+            revenue[row * days + slot] = 0;
+        }
+    }
+
+    // Write one [productId, saleDate, quantitySold, revenue] row into its slot; caller holds the write lock
+    private void apply(Object[] sale) {
+        long day = ((LocalDate) sale[1]).toEpochDay();
+        if (day <= headDay - days || day > headDay) {
+            return;
+        }
+        int offset = rowFor((Long) sale[0]) * days + slot(day);
+        quantities[offset] = (Integer) sale[2];
+        revenue[offset] = (Double) sale[3];
+    }
+
+    private int rowFor(Long productId) {
+        Integer row = rows.get(productId);
+        if (row != null) {
+            return row;
+        }
+        int next = rows.size();
+        if (next == capacity) {
+            capacity = Math.max(1024, capacity * 2);
+            quantities = Arrays.copyOf(quantities, capacity * days);
+            revenue = Arrays.copyOf(revenue, capacity * days);
+        }
+        rows.put(productId, next);
+        return next;
+    }
+
+    private void readSales(LocalDate from, LocalDate through, Consumer<Object[]> sink) {
+        readOnlyTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> stream = historicalSalesRepository.streamDailySalesBetween(from, through)) {
+                for (Iterator<Object[]> it = stream.iterator(); it.hasNext(); ) {
+                    sink.accept(it.next());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,222 @@
+package net.java.inventory_app.idempotency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Results of requests sent with an Idempotency-Key header, so a client retry gets the original response instead
+ * of placing the order or moving the stock again. The first request with a key runs; concurrent duplicates wait
+ * for its result. Successful (2xx) responses are kept as status + JSON bytes until the TTL passes. Error
+ * responses changed nothing (their transaction rolled back), so they are not kept and a retry runs again.
+ * A key reused with a different request body is rejected; bodies are compared by the SHA-256 of their JSON with
+ * object keys sorted, so field or map order does not matter.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+
+    @Value("${inventory.idempotency.ttl-seconds:3600}")
+    private long ttlSeconds = 3600;
+
+    @Value("${inventory.idempotency.max-entries:50000}")
+    private int maxEntries = 50000;
+
+    // How long a duplicate waits for the first request with its key to finish
+    @Value("${inventory.idempotency.wait-ms:10000}")
+    private long waitMillis = 10000;
+
+    @Autowired
+    public IdempotencyStore(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Run the action once per (scope, key); without a key it simply runs
+    public ResponseEntity<Map<String, Object>> execute(String scope, String key, Object request,
+                                                       Supplier<ResponseEntity<Map<String, Object>>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > 255) {
+            return error(HttpStatus.BAD_REQUEST, HEADER + " must be at most 255 characters");
+        }
+
+        String storeKey = scope + ' ' + key;
+        byte[] fingerprint = fingerprint(request);
+        while (true) {
+            Entry fresh = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(storeKey, fresh);
+            if (existing != null && existing.isExpired() && entries.replace(storeKey, existing, fresh)) {
+                existing = null;
+            }
+
+            if (existing == null) {
+                if (entries.size() > maxEntries) {
+                    evictExpired();
+                    if (entries.size() > maxEntries) {
+                        entries.remove(storeKey, fresh);
+                        fresh.result.complete(null);
+                        return error(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending idempotency keys, retry later");
+                    }
+                }
+                return runFirst(storeKey, fresh, action);
+            }
+
+            if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+                mismatches.incrementAndGet();
+                return error(HttpStatus.UNPROCESSABLE_CONTENT, HEADER + " was already used for a different request");
+            }
+            StoredResponse stored;
+            try {
+                stored = existing.result.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+            } catch (ExecutionException e) {
+                continue; // the first attempt failed and was dropped; run it now
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return error(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the original request");
+            }
+            if (stored == null) {
+                continue;
+            }
+            replays.incrementAndGet();
+            return replay(stored);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.idempotency.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().isExpired()) {
+                it.remove();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("keys", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("executions", executions.get());
+        stats.put("replays", replays.get());
+        stats.put("mismatches", mismatches.get());
+        return stats;
+    }
+
+    private ResponseEntity<Map<String, Object>> runFirst(String storeKey, Entry entry,
+                                                         Supplier<ResponseEntity<Map<String, Object>>> action) {
+        executions.incrementAndGet();
+        ResponseEntity<Map<String, Object>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.remove(storeKey, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            entries.remove(storeKey, entry);
+            entry.result.completeExceptionally(new IllegalStateException("Not kept: " + response.getStatusCode()));
+            return response;
+        }
+        StoredResponse stored;
+        try {
+            stored = new StoredResponse(response.getStatusCode().value(),
+                    response.getBody() != null ? objectMapper.writeValueAsBytes(response.getBody()) : null);
+        } catch (RuntimeException e) {
+            // The action ran; a retry must not run it again, so keep at least the status
+            System.err.println("Idempotency store: could not serialize response for replay: " + e.getMessage());
+            stored = new StoredResponse(response.getStatusCode().value(), null);
+        }
+        entry.expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+        entry.result.complete(stored);
+        return response;
+    }
+
+    // SHA-256 of the request as JSON with every object's keys sorted
+    private byte[] fingerprint(Object request) {
+        Object canonical = canonical(objectMapper.convertValue(request, Object.class));
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(canonical));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Object canonical(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((k, v) -> sorted.put(String.valueOf(k), canonical(v)));
+            return sorted;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> items = new ArrayList<>(list.size());
+            list.forEach(item -> items.add(canonical(item)));
+            return items;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<Map<String, Object>> replay(StoredResponse stored) {
+        Map<String, Object> body = stored.body != null ? objectMapper.readValue(stored.body, Map.class) : null;
+        return ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true").body(body);
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private record StoredResponse(int status, byte[] body) {
+    }
+
+    private static final class Entry {
+        private final byte[] fingerprint;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        private volatile long expiresAt; // set once the result is stored
+
+        private Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        // In-flight entries never expire
+        private boolean isExpired() {
+            return result.isDone() && expiresAt - System.nanoTime() < 0;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package net.java.inventory_app.index;
+
+import net.java.inventory_app.event.CatalogImportedEvent;
+import net.java.inventory_app.event.ProductChangedEvent;
+import net.java.inventory_app.ledger.StockLedger;
+import net.java.inventory_app.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Products ordered by current stock and by stock / reorder point, so "out of stock", "low stock" and
+ * "below reorder point" are range lookups instead of table scans. Loaded from the products table at startup
+ * and refreshed from the database for the ids of every ProductChangedEvent once its transaction commits
+ * (or entirely after a bulk import). Products the in-memory stock ledger tracks take their stock from the ledger,
+ * which runs ahead of the table until its flush.
+ */
+@Component
+public class StockLevelIndex {
+
+    private record Level(long productId, int stock, int reorderPoint) {
+
+        // stock <= reorderPoint exactly when ratio <= 1; a product without a reorder point is never below it
+        private double ratio() {
+            if (reorderPoint > 0) {
+                return (double) stock / reorderPoint;
+            }
+            return stock <= 0 ? 0.0 : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private static final Comparator<Level> BY_STOCK = Comparator
+            .comparingInt(Level::stock)
+            .thenComparingLong(Level::productId);
+
+    private static final Comparator<Level> BY_RATIO = Comparator
+            .comparingDouble(Level::ratio)
+            .thenComparingLong(Level::productId);
+
+    private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final Map<Long, Level> levels = new HashMap<>();
+    private final TreeSet<Level> byStock = new TreeSet<>(BY_STOCK);
+    private final TreeSet<Level> byRatio = new TreeSet<>(BY_RATIO);
+    private volatile boolean ready;
+
+    @Autowired
+    public StockLevelIndex(ProductRepository productRepository, StockLedger stockLedger) {
+        this.productRepository = productRepository;
+        this.stockLedger = stockLedger;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogImportedEvent.class})
+    public void build() {
+        long start = System.currentTimeMillis();
+        try {
+            List<Object[]> rows = productRepository.findStockLevelEntries();
+            synchronized (this) {
+                levels.clear();
+                byStock.clear();
+                byRatio.clear();
+                for (Object[] row : rows) {
+                    put(row);
+                }
+                ready = true;
+            }
+            System.out.println("Stock level index built: " + rows.size() + " products in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("Stock level index not built, falling back to queries: " + e.getMessage());
+        }
+    }
+
+    // Re-read the changed products; ids without a row were deleted. Read under the lock so listeners apply in
+    // the order they read and a row read before a newer ledger update cannot overwrite it.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!ready || event.productIds().isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            List<Object[]> rows = productRepository.findStockLevelEntries(event.productIds());
+            Set<Long> missing = new HashSet<>(event.productIds());
+            for (Object[] row : rows) {
+                missing.remove((Long) row[0]);
+                put(row);
+            }
+            for (Long id : missing) {
+                remove(id);
+            }
+        }
+    }
+
+    // A ledger movement was accepted: take the ledger's current level, so of two racing movements the one applied
+    // last also carries the newest stock
+    public synchronized void updateFromLedger(Long productId, int reorderPoint) {
+        Integer stock = stockLedger.getTrackedStock(productId);
+        if (stock != null) {
+            update(productId, stock, reorderPoint);
+        }
+    }
+
+    private void update(Long productId, int stock, int reorderPoint) {
+        remove(productId);
+        Level level = new Level(productId, stock, reorderPoint);
+        levels.put(productId, level);
+        byStock.add(level);
+        byRatio.add(level);
+    }
+
+    public synchronized void remove(Long productId) {
+        Level level = levels.remove(productId);
+        if (level != null) {
+            byStock.remove(level);
+            byRatio.remove(level);
+        }
+    }
+
+    // Products with minStock <= stock < maxStock, lowest stock first
+    public synchronized List<Long> findByStockBetween(int minStock, int maxStock) {
+        if (minStock >= maxStock) {
+            return List.of();
+        }
+        return ids(byStock.subSet(new Level(Long.MIN_VALUE, minStock, 0), true,
+                new Level(Long.MIN_VALUE, maxStock, 0), false));
+    }
+
+    // Products with stock <= 0
+    public List<Long> findOutOfStock() {
+        return findByStockBetween(Integer.MIN_VALUE, 1);
+    }
+
+    // Products at or below their reorder point, furthest below first
+    public synchronized List<Long> findBelowReorderPoint() {
+        // Level(MAX_VALUE, 1, 1) is the last possible entry with ratio 1.0
+        return ids(byRatio.headSet(new Level(Long.MAX_VALUE, 1, 1), true));
+    }
+
+    public synchronized int countBelowReorderPoint() {
+        return byRatio.headSet(new Level(Long.MAX_VALUE, 1, 1), true).size();
+    }
+
+    public synchronized int size() {
+        return levels.size();
+    }
+
+    // The ledger's stock wins over the row for products it tracks
+    private void put(Object[] row) {
+        Long productId = (Long) row[0];
+        Integer tracked = stockLedger.getTrackedStock(productId);
+        update(productId,
+                tracked != null ? tracked : row[1] != null ? ((Number) row[1]).intValue() : 0,
+                row[2] != null ? ((Number) row[2]).intValue() : 0);
+    }
+
+    private static List<Long> ids(NavigableSet<Level> range) {
+        List<Long> ids = new ArrayList<>(range.size());
+        for (Level level : range) {
+            ids.add(level.productId);
+        }
+        return ids;
+    }
+
+    // Put rows loaded with findAllById (any order) back into the order of the index lookup
+    public static <T> List<T> inIndexOrder(List<Long> ids, Collection<T> items, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T item : items) {
+            byId.put(idOf.apply(item), item);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T item = byId.get(id);
+            if (item != null) {
+                ordered.add(item);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,92 @@
+package net.java.inventory_app.job;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class BackgroundJob implements ProgressListener<Object> {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String jobType;
+    private final String jobKey;
+    private final LocalDateTime submittedAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile double percentComplete;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile Object result;
+    private volatile String error;
+    private final List<Object> partialResults = new ArrayList<>();
+
+    public BackgroundJob(String jobType, String jobKey) {
+        this.id = UUID.randomUUID().toString();
+        this.jobType = jobType;
+        this.jobKey = jobKey;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public void onProgress(int processed, int total) {
+        percentComplete = total == 0 ? 100.0 : Math.round(processed * 10000.0 / total) / 100.0;
+    }
+
+    @Override
+    public void onPartialResults(List<?> results) {
+        synchronized (partialResults) {
+            partialResults.addAll(results);
+        }
+    }
+
+    public void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    public void complete(Object result) {
+        this.result = result;
+        this.percentComplete = 100.0;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    // Partial results from the given index on, so pollers only fetch what is new
+    public List<Object> getPartialResults(int fromIndex) {
+        synchronized (partialResults) {
+            int from = Math.max(0, Math.min(fromIndex, partialResults.size()));
+            return new ArrayList<>(partialResults.subList(from, partialResults.size()));
+        }
+    }
+
+    public int getPartialResultCount() {
+        synchronized (partialResults) {
+            return partialResults.size();
+        }
+    }
+
+    public String getId() { return id; }
+    public String getJobType() { return jobType; }
+    public String getJobKey() { return jobKey; }
+    public Status getStatus() { return status; }
+    public double getPercentComplete() { return percentComplete; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public Object getResult() { return result; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,21 @@
+package net.java.inventory_app.job;
+
+import java.util.List;
+
+/**
+ * Callback for long-running catalog scans so callers (e.g. background jobs)
+ * can observe progress and pick up results before the scan finishes.
+ */
+public interface ProgressListener<T> {
+
+    default void onProgress(int processed, int total) {
+    }
+
+    default void onPartialResults(List<? extends T> results) {
+    }
+
+    static <T> ProgressListener<T> none() {
+        return new ProgressListener<>() {
+        };
+    }
+}
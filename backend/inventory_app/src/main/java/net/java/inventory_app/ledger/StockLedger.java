@@ -0,0 +1,451 @@
+package net.java.inventory_app.ledger;
+
+import jakarta.annotation.PreDestroy;
+import net.java.inventory_app.entity.LedgerCheckpoint;
+import net.java.inventory_app.entity.LedgerReconciliation;
+import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.entity.Transaction;
+import net.java.inventory_app.event.ProductChangedEvent;
+import net.java.inventory_app.exception.InsufficientStockException;
+import net.java.inventory_app.repository.LedgerCheckpointRepository;
+import net.java.inventory_app.repository.LedgerReconciliationRepository;
+import net.java.inventory_app.repository.ProductRepository;
+import net.java.inventory_app.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stock counters for hot products. Stock-in / stock-out requests are answered from memory and
+ * written behind to MySQL on a fixed interval:
+ * 1. pending movements are drained and journaled as aggregated STOCK_IN / STOCK_OUT rows in transactions
+ *    (handler STOCK_LEDGER), so a flush that got this far is durable;
+ * 2. journal rows beyond the checkpoint are applied to products.current_stock and the checkpoint advances
+ *    in the same database transaction.
+ * Step 2 also runs at startup, so a crash between the two steps is repaired by replaying the journal.
+ * Writers that keep updating MySQL directly while the ledger is on (placed orders) reserve their quantities here
+ * first, so the ledger never hands out stock an order already took. A journal delta the product row still cannot
+ * take is recorded in ledger_reconciliation before the checkpoint moves past it.
+ */
+@Component
+public class StockLedger {
+
+    public static final String JOURNAL_HANDLER = "STOCK_LEDGER";
+    private static final String CHECKPOINT_NAME = "stock-ledger";
+
+    private final ProductRepository productRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final LedgerReconciliationRepository reconciliationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong acceptedMovements = new AtomicLong();
+    private final AtomicLong journalRowsWritten = new AtomicLong();
+    private final AtomicLong unappliedDeltas = new AtomicLong();
+    private volatile long flushCount;
+    private volatile long failedFlushCount;
+    private volatile long lastFlushMillis;
+    private volatile LocalDateTime lastFlushAt;
+
+    @Value("${inventory.ledger.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${inventory.transactions.batch-size:100}")
+    private int batchSize = 100;
+
+    @Autowired
+    public StockLedger(ProductRepository productRepository,
+                       TransactionRepository transactionRepository,
+                       LedgerCheckpointRepository checkpointRepository,
+                       LedgerReconciliationRepository reconciliationRepository,
+                       PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.reconciliationRepository = reconciliationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Add stock in memory; returns the product snapshot with its ledger stock level
+    public Product stockIn(Long productId, int quantity) {
+        while (true) {
+            Entry entry = entry(productId);
+            synchronized (entry) {
+                if (entry.retired) {
+                    continue;
+                }
+                entry.available += quantity;
+                entry.pendingIn += quantity;
+                entry.record();
+                acceptedMovements.incrementAndGet();
+                return entry.product;
+            }
+        }
+    }
+
+    // Remove stock in memory only if enough is available; returns the product snapshot with its ledger stock level
+    public Product stockOut(Long productId, int quantity) {
+        while (true) {
+            Entry entry = entry(productId);
+            synchronized (entry) {
+                if (entry.retired) {
+                    continue;
+                }
+                if (entry.available < quantity) {
+                    throw new RuntimeException("Insufficient stock. Available: " + entry.available + ", Requested: " + quantity);
+                }
+                entry.available -= quantity;
+                entry.pendingOut += quantity;
+                entry.record();
+                acceptedMovements.incrementAndGet();
+                return entry.product;
+            }
+        }
+    }
+
+    // Take stock for an order written straight to MySQL; all lines or none. The caller settles the quantities
+    // once the order is committed or releases them if it is not.
+    public void reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                int quantity = line.getValue();
+                while (true) {
+                    Entry entry = entry(line.getKey());
+                    synchronized (entry) {
+                        if (entry.retired) {
+                            continue;
+                        }
+                        if (entry.available < quantity) {
+                            shortages.add(new InsufficientStockException.Shortage(line.getKey(),
+                                    entry.product.getName(), entry.available, quantity));
+                        } else {
+                            entry.available -= quantity;
+                            entry.reserved += quantity;
+                            entry.active = true;
+                            entry.product.setCurrentStock(entry.available);
+                            taken.put(line.getKey(), quantity);
+                        }
+                        break;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            release(taken);
+            throw e;
+        }
+        if (!shortages.isEmpty()) {
+            release(taken);
+            throw new InsufficientStockException(shortages);
+        }
+    }
+
+    // The order holding these reservations committed; its decrement is in MySQL from now on
+    public void settle(Map<Long, Integer> quantities) {
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Entry entry = entries.get(line.getKey()); // entries holding reservations are never retired
+            synchronized (entry) {
+                entry.reserved -= line.getValue();
+                entry.settled += line.getValue();
+            }
+        }
+    }
+
+    // The order holding these reservations did not commit; hand the stock back
+    public void release(Map<Long, Integer> quantities) {
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Entry entry = entries.get(line.getKey());
+            synchronized (entry) {
+                entry.reserved -= line.getValue();
+                entry.available += line.getValue();
+                entry.product.setCurrentStock(entry.available);
+            }
+        }
+    }
+
+    // Ledger stock level of a product the ledger tracks, or null when the table is authoritative for it
+    public Integer getTrackedStock(Long productId) {
+        Entry entry = entries.get(productId);
+        if (entry != null) {
+            synchronized (entry) {
+                if (!entry.retired) {
+                    return entry.available;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Ledger stock level if the product is tracked, otherwise the database value
+    public Integer getCurrentStock(Long productId) {
+        Integer tracked = getTrackedStock(productId);
+        if (tracked != null) {
+            return tracked;
+        }
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId))
+                .getCurrentStock();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (enabled && !entries.isEmpty()) {
+            flush();
+        }
+    }
+
+    // Apply journal rows left behind by a crash between journaling and applying
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        try {
+            int replayed = replayJournal();
+            if (replayed > 0) {
+                System.out.println("Stock ledger recovery: applied journal deltas for " + replayed + " products");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Stock ledger recovery failed: " + e.getMessage());
+        }
+    }
+
+    public synchronized void flush() {
+        long start = System.currentTimeMillis();
+
+        // 1. Drain pending movements and journal them as aggregated transaction rows
+        List<Drained> drained = new ArrayList<>();
+        List<Transaction> journal = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            Drained d;
+            synchronized (entry) {
+                if (entry.movements == 0) {
+                    continue;
+                }
+                d = new Drained(entry, entry.pendingIn, entry.pendingOut, entry.movements);
+                entry.pendingIn = 0;
+                entry.pendingOut = 0;
+                entry.movements = 0;
+            }
+            drained.add(d);
+            if (d.in > 0) {
+                journal.add(new Transaction(entry.product, "STOCK_IN", d.in, JOURNAL_HANDLER,
+                        "Ledger flush of " + d.movements + " movements"));
+            }
+            if (d.out > 0) {
+                journal.add(new Transaction(entry.product, "STOCK_OUT", d.out, JOURNAL_HANDLER,
+                        "Ledger flush of " + d.movements + " movements"));
+            }
+        }
+
+        try {
+            if (!journal.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> transactionRepository.batchInsert(journal, batchSize));
+                journalRowsWritten.addAndGet(journal.size());
+            }
+        } catch (RuntimeException e) {
+            // Nothing was written; put the movements back so the next flush retries them
+            for (Drained d : drained) {
+                synchronized (d.entry) {
+                    d.entry.pendingIn += d.in;
+                    d.entry.pendingOut += d.out;
+                    d.entry.movements += d.movements;
+                }
+            }
+            failedFlushCount++;
+            System.err.println("Stock ledger flush failed, will retry: " + e.getMessage());
+            return;
+        }
+
+        // 2. Apply the journal to product rows; on failure the rows are replayed next time
+        try {
+            replayJournal();
+        } catch (RuntimeException e) {
+            failedFlushCount++;
+            System.err.println("Stock ledger apply failed, journal will be replayed: " + e.getMessage());
+            return;
+        }
+
+        // 3. Pick up writes made outside the ledger and retire products that went quiet
+        resync();
+
+        flushCount++;
+        lastFlushAt = LocalDateTime.now();
+        lastFlushMillis = System.currentTimeMillis() - start;
+    }
+
+    public Map<String, Object> getStats() {
+        long pending = 0;
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                pending += entry.movements;
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("trackedProducts", entries.size());
+        stats.put("pendingMovements", pending);
+        stats.put("acceptedMovements", acceptedMovements.get());
+        stats.put("journalRowsWritten", journalRowsWritten.get());
+        stats.put("unappliedDeltas", unappliedDeltas.get());
+        stats.put("flushCount", flushCount);
+        stats.put("failedFlushCount", failedFlushCount);
+        stats.put("lastFlushMillis", lastFlushMillis);
+        stats.put("lastFlushAt", lastFlushAt);
+        return stats;
+    }
+
+    // Journal deltas that could not be applied, newest first
+    public List<LedgerReconciliation> getUnappliedDeltas() {
+        return reconciliationRepository.findAllByOrderByIdDesc();
+    }
+
+    private synchronized int replayJournal() {
+        Integer applied = transactionTemplate.execute(status -> {
+            LedgerCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                    .orElseGet(() -> new LedgerCheckpoint(CHECKPOINT_NAME));
+            List<Object[]> rows = transactionRepository.sumJournalDeltasAfter(JOURNAL_HANDLER, checkpoint.getLastTransactionId());
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            List<long[]> deltas = new ArrayList<>(rows.size());
+            long lastId = checkpoint.getLastTransactionId();
+            for (Object[] row : rows) {
+                deltas.add(new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()});
+                lastId = Math.max(lastId, ((Number) row[2]).longValue());
+            }
+            int[] updated = productRepository.applyStockDeltas(deltas);
+            List<LedgerReconciliation> unapplied = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    // The row was changed outside the ledger and would go negative (or is gone); the checkpoint
+                    // moves past these journal rows, so keep the delta for a manual fix instead of dropping it
+                    System.err.println("Stock ledger: could not apply delta " + deltas.get(i)[1] + " to product "
+                            + deltas.get(i)[0] + ", recorded for reconciliation");
+                    unapplied.add(new LedgerReconciliation(deltas.get(i)[0], deltas.get(i)[1], lastId));
+                }
+            }
+            if (!unapplied.isEmpty()) {
+                reconciliationRepository.saveAll(unapplied);
+                unappliedDeltas.addAndGet(unapplied.size());
+            }
+
+            checkpoint.setLastTransactionId(lastId);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+            eventPublisher.publishEvent(new ProductChangedEvent(deltas.stream().map(delta -> delta[0]).toList()));
+            return rows.size();
+        });
+        return applied != null ? applied : 0;
+    }
+
+    private void resync() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // Orders settled up to here are in the rows read below; anything settled later is not yet
+        List<Map.Entry<Long, Entry>> tracked = new ArrayList<>(entries.entrySet());
+        List<Long> ids = new ArrayList<>(tracked.size());
+        for (Map.Entry<Long, Entry> mapEntry : tracked) {
+            Entry entry = mapEntry.getValue();
+            synchronized (entry) {
+                entry.settledSeen = entry.settled;
+            }
+            ids.add(mapEntry.getKey());
+        }
+        Map<Long, Integer> stockLevels = new HashMap<>();
+        for (Object[] row : productRepository.findStockLevels(ids)) {
+            stockLevels.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        for (Map.Entry<Long, Entry> mapEntry : tracked) {
+            Entry entry = mapEntry.getValue();
+            Integer stored = stockLevels.get(mapEntry.getKey());
+            synchronized (entry) {
+                // Reserved or settled quantities the rows above do not contain yet
+                int unsettled = entry.reserved + entry.settled - entry.settledSeen;
+                if (stored == null || (!entry.active && entry.movements == 0 && unsettled == 0)) {
+                    // Entries with orders in flight stay until those orders are visible in the table
+                    if (unsettled == 0) {
+                        entry.retired = true;
+                        entries.remove(mapEntry.getKey(), entry);
+                    }
+                } else {
+                    // The database now holds everything drained; add what arrived since
+                    entry.available = stored + entry.pendingIn - entry.pendingOut - unsettled;
+                    entry.settled -= entry.settledSeen;
+                    entry.active = false;
+                }
+                entry.product.setCurrentStock(entry.available);
+            }
+        }
+    }
+
+    private Entry entry(Long productId) {
+        Entry entry = entries.get(productId);
+        if (entry != null) {
+            return entry;
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+        Entry loaded = new Entry(product);
+        Entry existing = entries.putIfAbsent(productId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Per-product counters, guarded by the entry's monitor
+    private static final class Entry {
+        private final Product product;
+        private int available;
+        private int pendingIn;
+        private int pendingOut;
+        private int movements;
+        private int reserved; // taken by orders not committed yet
+        private int settled; // taken by committed orders, until a resync reads them back from the table
+        private int settledSeen;
+        private boolean active;
+        private boolean retired;
+
+        private Entry(Product product) {
+            this.product = product;
+            this.available = product.getCurrentStock();
+        }
+
+        private void record() {
+            movements++;
+            active = true;
+            product.setCurrentStock(available);
+        }
+    }
+
+    private record Drained(Entry entry, int in, int out, int movements) {
+    }
+}
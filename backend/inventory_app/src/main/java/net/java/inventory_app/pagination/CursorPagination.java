@@ -0,0 +1,59 @@
+package net.java.inventory_app.pagination;
+
+import net.java.inventory_app.dto.CursorPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Shared keyset pagination for list endpoints. Each repository exposes a
+ * Window<T> findAllByOrderBy...(ScrollPosition, Limit) method whose sort ends in id, so pages stay stable while
+ * rows are inserted and every page costs an index range scan instead of OFFSET.
+ */
+@Component
+public class CursorPagination {
+
+    @Value("${inventory.pagination.default-size:50}")
+    private int defaultSize = 50;
+
+    @Value("${inventory.pagination.max-size:500}")
+    private int maxSize = 500;
+
+    // Lists ordered by (timeProperty, id)
+    public <T> CursorPage<T> page(String cursor, Integer size, String timeProperty,
+                                  BiFunction<ScrollPosition, Limit, Window<T>> query,
+                                  Function<T, LocalDateTime> timeKey, Function<T, Long> idKey) {
+        ScrollPosition position = cursor == null || cursor.isBlank()
+                ? ScrollPosition.keyset()
+                : PageCursor.decode(cursor).toScrollPosition(timeProperty);
+        Window<T> window = query.apply(position, Limit.of(resolveSize(size)));
+
+        List<T> items = window.getContent();
+        String nextCursor = null;
+        if (window.hasNext() && !items.isEmpty()) {
+            T last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(timeKey != null ? timeKey.apply(last) : null, idKey.apply(last)).encode();
+        }
+        return new CursorPage<>(items, items.size(), nextCursor != null, nextCursor);
+    }
+
+    // Lists ordered by id only
+    public <T> CursorPage<T> page(String cursor, Integer size,
+                                  BiFunction<ScrollPosition, Limit, Window<T>> query, Function<T, Long> idKey) {
+        return page(cursor, size, null, query, null, idKey);
+    }
+
+    private int resolveSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultSize;
+        }
+        return Math.min(size, maxSize);
+    }
+}
@@ -0,0 +1,46 @@
+package net.java.inventory_app.pagination;
+
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Position after the last row of a page: its (timestamp, id) sort key, or just the id for lists ordered by id.
+ * Clients only ever see the encoded form, an opaque URL-safe token.
+ */
+public record PageCursor(LocalDateTime timestamp, Long id) {
+
+    public String encode() {
+        String raw = (timestamp != null ? timestamp.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String timestamp = raw.substring(0, separator);
+            return new PageCursor(timestamp.isEmpty() ? null : LocalDateTime.parse(timestamp),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+
+    // Keyset position for a query sorted by (timeProperty, id), or by id alone when timeProperty is null
+    public ScrollPosition toScrollPosition(String timeProperty) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (timeProperty != null) {
+            if (timestamp == null) {
+                throw new RuntimeException("Invalid cursor: missing " + timeProperty);
+            }
+            keys.put(timeProperty, timestamp);
+        }
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+}
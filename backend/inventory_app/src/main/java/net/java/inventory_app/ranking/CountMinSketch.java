@@ -0,0 +1,86 @@
+package net.java.inventory_app.ranking;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch over product ids: depth rows of width counters, one hashed counter per row.
+ * Estimates never undercount; they overcount by at most about e/width of the total added, with
+ * probability 1 - e^-depth. Memory is depth * width ints regardless of how many products are counted.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[] cells;
+
+    // width is rounded up to a power of two
+    public CountMinSketch(int depth, int width) {
+        int w = Integer.highestOneBit(Math.max(16, width) - 1) << 1;
+        this.depth = Math.max(1, depth);
+        this.mask = w - 1;
+        this.cells = new int[this.depth * w];
+    }
+
+    // Add quantity for the product and return its new estimate
+    public int add(long productId, int quantity) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(productId, row);
+            cells[cell] += quantity;
+            estimate = Math.min(estimate, cells[cell]);
+        }
+        return estimate;
+    }
+
+    // Add the same quantity at the cells of `productId` in both sketches (bucket and running total)
+    public int add(long productId, int quantity, CountMinSketch total) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(productId, row);
+            cells[cell] += quantity;
+            total.cells[cell] += quantity;
+            estimate = Math.min(estimate, total.cells[cell]);
+        }
+        return estimate;
+    }
+
+    public int estimate(long productId) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells[cell(productId, row)]);
+        }
+        return estimate;
+    }
+
+    // Remove another sketch of the same shape from this one, e.g. an expired bucket from a running total
+    public void subtract(CountMinSketch other) {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] -= other.cells[i];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(cells, 0);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return mask + 1;
+    }
+
+    public long sizeInBytes() {
+        return cells.length * 4L;
+    }
+
+    private int cell(long productId, int row) {
+        // Independent hash per row: mix the id with a per-row seed (splitmix64 finalizer)
+        long h = productId * 0x9E3779B97F4A7C15L + (row + 1) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return row * (mask + 1) + ((int) h & mask);
+    }
+}
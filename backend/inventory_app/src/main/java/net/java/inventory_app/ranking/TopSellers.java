@@ -0,0 +1,110 @@
+package net.java.inventory_app.ranking;
+
+import net.java.inventory_app.event.OrderPlacedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Live top-K of products by purchase count.
+ * Purchase counts of all products are kept in a map and the best max-k of them in a sorted set. Counts only
+ * grow with orders, so every product outside the set stays at or below the set's last entry; a product enters
+ * the set only when its own count passes that entry. Removing a product refills the set with one scan.
+ */
+@Component
+public class TopSellers {
+
+    private record Entry(long productId, long purchaseCount) {
+    }
+
+    // Highest purchase count first, lower id first on ties
+    private static final Comparator<Entry> RANK = Comparator
+            .comparingLong((Entry e) -> -e.purchaseCount)
+            .thenComparingLong(Entry::productId);
+
+    private final Map<Long, Long> counts = new HashMap<>();
+    private final TreeSet<Entry> top = new TreeSet<>(RANK);
+    private volatile boolean ready;
+
+    @Value("${inventory.top-sellers.max-k:100}")
+    private int maxK = 100;
+
+    public int getMaxK() {
+        return maxK;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Replace all counts, e.g. from the products table at startup; rows are (id, purchaseCount)
+    public synchronized void rebuild(List<Object[]> rows) {
+        counts.clear();
+        top.clear();
+        for (Object[] row : rows) {
+            long count = row[1] != null ? ((Number) row[1]).longValue() : 0;
+            counts.put((Long) row[0], count);
+            offer(new Entry((Long) row[0], count));
+        }
+        ready = true;
+    }
+
+    // Best `limit` product ids, best first (limit is capped at max-k)
+    public synchronized List<Long> top(int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, top.size()));
+        Iterator<Entry> it = top.iterator();
+        while (it.hasNext() && ids.size() < limit) {
+            ids.add(it.next().productId);
+        }
+        return ids;
+    }
+
+    public synchronized void add(Long productId, long quantity) {
+        long previous = counts.getOrDefault(productId, 0L);
+        long updated = previous + quantity;
+        counts.put(productId, updated);
+        top.remove(new Entry(productId, previous));
+        offer(new Entry(productId, updated));
+    }
+
+    public synchronized void remove(Long productId) {
+        Long previous = counts.remove(productId);
+        if (previous != null && top.remove(new Entry(productId, previous))) {
+            // The best product outside the set takes the free slot
+            Entry best = null;
+            for (Map.Entry<Long, Long> e : counts.entrySet()) {
+                Entry candidate = new Entry(e.getKey(), e.getValue());
+                if (!top.contains(candidate) && (best == null || RANK.compare(candidate, best) < 0)) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                top.add(best);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (Map.Entry<Long, Integer> line : event.quantities().entrySet()) {
+            add(line.getKey(), line.getValue());
+        }
+    }
+
+    private void offer(Entry entry) {
+        if (top.size() < maxK) {
+            top.add(entry);
+        } else if (RANK.compare(entry, top.last()) < 0) {
+            top.pollLast();
+            top.add(entry);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package net.java.inventory_app.ranking;
+
+import net.java.inventory_app.event.OrderPlacedEvent;
+import net.java.inventory_app.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Units sold per product over sliding windows (24h, 7d, 30d), fed by placed orders.
+ * Each window is a ring of time buckets; every bucket holds a Count-Min sketch and the window keeps a running
+ * total sketch (sum of its buckets), so an expiring bucket is subtracted instead of recounting. Next to the
+ * sketches each window tracks a bounded set of heavy-hitter candidates ordered by estimate, which top-K reads
+ * directly. Memory depends on sketch width/depth and candidates, not on the catalog size.
+ */
+@Component
+public class TrendingProducts {
+
+    public enum TrendWindow {
+        DAY("24h", 60 * 60 * 1000L, 24),
+        WEEK("7d", 6 * 60 * 60 * 1000L, 28),
+        MONTH("30d", 24 * 60 * 60 * 1000L, 30);
+
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+
+        TrendWindow(String label, long bucketMillis, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static TrendWindow fromLabel(String label) {
+            for (TrendWindow window : values()) {
+                if (window.label.equalsIgnoreCase(label) || window.name().equalsIgnoreCase(label)) {
+                    return window;
+                }
+            }
+            throw new RuntimeException("Unknown trending window: " + label + " (use 24h, 7d or 30d)");
+        }
+    }
+
+    public record Trend(Long productId, long unitsSold) {
+    }
+
+    private record Candidate(long productId, long estimate) {
+    }
+
+    // Highest estimate first, lower id first on ties
+    private static final Comparator<Candidate> RANK = Comparator
+            .comparingLong((Candidate c) -> -c.estimate)
+            .thenComparingLong(Candidate::productId);
+
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<TrendWindow, Window> windows = new EnumMap<>(TrendWindow.class);
+
+    @Value("${inventory.trending.max-k:50}")
+    private int maxK = 50;
+
+    @Value("${inventory.trending.sketch-width:2048}")
+    private int sketchWidth = 2048;
+
+    @Value("${inventory.trending.sketch-depth:4}")
+    private int sketchDepth = 4;
+
+    @Autowired
+    public TrendingProducts(OrderItemRepository orderItemRepository, PlatformTransactionManager transactionManager) {
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public int getMaxK() {
+        return maxK;
+    }
+
+    // Replay the last 30 days of order items once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        LocalDateTime from = LocalDateTime.now().minusDays(TrendWindow.MONTH.buckets);
+        try {
+            Long rows = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<Object[]> stream = orderItemRepository.streamSalesSince(from)) {
+                    Iterator<Object[]> it = stream.iterator();
+                    while (it.hasNext()) {
+                        Object[] row = it.next();
+                        record((Long) row[0], ((Number) row[2]).intValue(), (LocalDateTime) row[1]);
+                        count++;
+                    }
+                }
+                return count;
+            });
+            System.out.println("Trending products warmed up from " + rows + " order lines in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("Trending products warm-up failed: " + e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        LocalDateTime placedAt = event.placedAt() != null ? event.placedAt() : LocalDateTime.now();
+        for (Map.Entry<Long, Integer> line : event.quantities().entrySet()) {
+            record(line.getKey(), line.getValue(), placedAt);
+        }
+    }
+
+    public synchronized void record(Long productId, int quantity, LocalDateTime soldAt) {
+        long millis = toMillis(soldAt);
+        for (TrendWindow window : TrendWindow.values()) {
+            window(window).add(productId, quantity, Math.floorDiv(millis, window.bucketMillis));
+        }
+    }
+
+    // Best `limit` products of the window by estimated units sold, best first (limit capped at max-k)
+    public synchronized List<Trend> top(TrendWindow window, int limit) {
+        Window w = window(window);
+        w.advance(Math.floorDiv(toMillis(LocalDateTime.now()), window.bucketMillis));
+        List<Trend> trends = new ArrayList<>(Math.min(limit, maxK));
+        for (Candidate candidate : w.ranked) {
+            if (trends.size() >= Math.min(limit, maxK)) {
+                break;
+            }
+            trends.add(new Trend(candidate.productId, candidate.estimate));
+        }
+        return trends;
+    }
+
+    public synchronized void remove(Long productId) {
+        for (Window w : windows.values()) {
+            Long estimate = w.candidates.remove(productId);
+            if (estimate != null) {
+                w.ranked.remove(new Candidate(productId, estimate));
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long bytes = 0;
+        for (TrendWindow window : TrendWindow.values()) {
+            Window w = window(window);
+            bytes += w.sizeInBytes();
+            stats.put(window.label + "Candidates", w.candidates.size());
+        }
+        stats.put("sketchWidth", window(TrendWindow.DAY).total.getWidth());
+        stats.put("sketchDepth", window(TrendWindow.DAY).total.getDepth());
+        stats.put("maxK", maxK);
+        stats.put("approxMemoryBytes", bytes);
+        return stats;
+    }
+
+    private Window window(TrendWindow window) {
+        return windows.computeIfAbsent(window, Window::new);
+    }
+
+    // Order dates are local wall-clock times; buckets (and day boundaries) follow the same clock
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private final class Window {
+        private final TrendWindow spec;
+        private final CountMinSketch[] buckets;
+        private final CountMinSketch total;
+        private final int capacity;
+        private final Map<Long, Long> candidates = new HashMap<>();
+        private final TreeSet<Candidate> ranked = new TreeSet<>(RANK);
+        private long head = Long.MIN_VALUE; // absolute number of the newest bucket
+
+        private Window(TrendWindow spec) {
+            this.spec = spec;
+            this.buckets = new CountMinSketch[spec.buckets];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new CountMinSketch(sketchDepth, sketchWidth);
+            }
+            this.total = new CountMinSketch(sketchDepth, sketchWidth);
+            // Extra candidates so products just below the top K are not forgotten
+            this.capacity = Math.max(maxK * 4, 16);
+        }
+
+        private void add(long productId, int quantity, long bucket) {
+            advance(bucket);
+            if (bucket <= head - spec.buckets) {
+                return; // older than the window
+            }
+            int estimate = buckets[(int) Math.floorMod(bucket, (long) spec.buckets)].add(productId, quantity, total);
+            offer(productId, estimate);
+        }
+
+        // Move the ring forward to `bucket`, subtracting every bucket that falls out of the window
+        private void advance(long bucket) {
+            if (head == Long.MIN_VALUE) {
+                head = bucket;
+                return;
+            }
+            if (bucket <= head) {
+                return;
+            }
+            long steps = Math.min(bucket - head, spec.buckets);
+            for (long s = 1; s <= steps; s++) {
+                CountMinSketch expired = buckets[(int) Math.floorMod(head + s, (long) spec.buckets)];
+                total.subtract(expired);
+                expired.clear();
+            }
+            head = bucket;
+            refreshCandidates();
+        }
+
+        private void offer(long productId, long estimate) {
+            Long previous = candidates.get(productId);
+            if (previous != null) {
+                ranked.remove(new Candidate(productId, previous));
+            } else if (candidates.size() >= capacity) {
+                Candidate weakest = ranked.last();
+                if (RANK.compare(new Candidate(productId, estimate), weakest) >= 0) {
+                    return;
+                }
+                ranked.pollLast();
+                candidates.remove(weakest.productId);
+            }
+            candidates.put(productId, estimate);
+            ranked.add(new Candidate(productId, estimate));
+        }
+
+        // Estimates drop as buckets expire; re-read them from the total and forget products with no sales left
+        private void refreshCandidates() {
+            ranked.clear();
+            Iterator<Map.Entry<Long, Long>> it = candidates.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, Long> entry = it.next();
+                int estimate = total.estimate(entry.getKey());
+                if (estimate <= 0) {
+                    it.remove();
+                } else {
+                    entry.setValue((long) estimate);
+                    ranked.add(new Candidate(entry.getKey(), estimate));
+                }
+            }
+        }
+
+        private long sizeInBytes() {
+            return (buckets.length + 1) * total.sizeInBytes() + candidates.size() * 96L;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package net.java.inventory_app.repository;
 
 import net.java.inventory_app.entity.Alert;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -13,4 +16,7 @@ public interface AlertRepository extends JpaRepository<Alert, Long> {
     List<Alert> findBySeverityAndIsRead(String severity, Boolean isRead);
     List<Alert> findAllByOrderByCreatedAtDesc();
     Long countByIsRead(Boolean isRead);
-}
\ No newline at end of file
+    
+    // Keyset page (newest first, ties broken by id) for cursor pagination
+    Window<Alert> findAllByOrderByCreatedAtDescIdDesc(ScrollPosition position, Limit limit);
+}
@@ -10,7 +10,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DemandForecastRepository extends JpaRepository<DemandForecast, Long> {
+public interface DemandForecastRepository extends JpaRepository<DemandForecast, Long>, DemandForecastRepositoryCustom {
     
     // Find forecasts by product
     List<DemandForecast> findByProductId(Long productId);
@@ -21,6 +21,14 @@ public interface DemandForecastRepository extends JpaRepository<DemandForecast,
     // Find forecast for specific product and date
     Optional<DemandForecast> findByProductIdAndForecastDateAndForecastType(Long productId, LocalDate forecastDate, String forecastType);
     
+    // Find all forecasts generated for a date and type, with their products in the same query
+    @Query("SELECT df FROM DemandForecast df JOIN FETCH df.product WHERE df.forecastDate = ?1 AND df.forecastType = ?2")
+    List<DemandForecast> findByForecastDateAndForecastType(LocalDate forecastDate, String forecastType);
+    
+    // Product ids that already have a forecast for a date and type
+    @Query("SELECT df.product.id FROM DemandForecast df WHERE df.forecastDate = ?1 AND df.forecastType = ?2")
+    List<Long> findProductIdsWithForecast(LocalDate forecastDate, String forecastType);
+    
     // Get latest forecasts
     @Query("SELECT df FROM DemandForecast df WHERE df.forecastDate >= CURRENT_DATE ORDER BY df.forecastDate ASC")
     List<DemandForecast> findUpcomingForecasts();
@@ -0,0 +1,15 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.DemandForecast;
+
+import java.util.List;
+
+public interface DemandForecastRepositoryCustom {
+
+    // Insert or update forecasts (keyed by product, date and type) in JDBC batches
+    void upsertAll(List<DemandForecast> forecasts, int batchSize);
+
+    // Make sure the (product, date, type) unique key exists, deleting older duplicate rows first if it does not;
+    // returns the number of duplicates removed
+    int ensureUniqueKey();
+}
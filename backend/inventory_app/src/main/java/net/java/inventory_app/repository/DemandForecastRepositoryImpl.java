@@ -0,0 +1,64 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.DemandForecast;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class DemandForecastRepositoryImpl implements DemandForecastRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO demand_forecast (product_id, forecast_date, predicted_demand, confidence_score, forecast_type, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE predicted_demand = VALUES(predicted_demand), " +
+            "confidence_score = VALUES(confidence_score), created_at = VALUES(created_at)";
+
+    private static final String UNIQUE_KEY = "uk_forecast_product_date_type";
+
+    private static final String UNIQUE_KEY_EXISTS_SQL =
+            "SELECT COUNT(*) FROM information_schema.statistics " +
+            "WHERE table_schema = DATABASE() AND table_name = 'demand_forecast' AND index_name = '" + UNIQUE_KEY + "'";
+
+    // Keeps the newest row (highest id) of every (product, date, type)
+    private static final String DELETE_DUPLICATES_SQL =
+            "DELETE f FROM demand_forecast f JOIN demand_forecast newer " +
+            "ON newer.product_id = f.product_id AND newer.forecast_date = f.forecast_date " +
+            "AND newer.forecast_type = f.forecast_type AND newer.id > f.id";
+
+    private static final String ADD_UNIQUE_KEY_SQL =
+            "ALTER TABLE demand_forecast ADD CONSTRAINT " + UNIQUE_KEY + " UNIQUE (product_id, forecast_date, forecast_type)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DemandForecastRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertAll(List<DemandForecast> forecasts, int batchSize) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, forecasts, batchSize, (ps, forecast) -> {
+            ps.setLong(1, forecast.getProduct().getId());
+            ps.setDate(2, Date.valueOf(forecast.getForecastDate()));
+            ps.setInt(3, forecast.getPredictedDemand());
+            ps.setDouble(4, forecast.getConfidenceScore());
+            ps.setString(5, forecast.getForecastType());
+            ps.setTimestamp(6, Timestamp.valueOf(forecast.getCreatedAt()));
+        });
+    }
+
+    @Override
+    public int ensureUniqueKey() {
+        Integer existing = jdbcTemplate.queryForObject(UNIQUE_KEY_EXISTS_SQL, Integer.class);
+        if (existing != null && existing > 0) {
+            return 0;
+        }
+        // ddl-auto cannot add the key while duplicates exist; without it the upsert would insert more of them
+        int removed = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+        jdbcTemplate.execute(ADD_UNIQUE_KEY_SQL);
+        return removed;
+    }
+}
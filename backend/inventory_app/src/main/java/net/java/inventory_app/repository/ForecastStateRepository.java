@@ -0,0 +1,16 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.ForecastState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ForecastStateRepository extends JpaRepository<ForecastState, Long> {
+
+    // Oldest day any state is folded through; null when there are no states yet
+    @Query("SELECT MIN(s.foldedThrough) FROM ForecastState s")
+    LocalDate findOldestFoldedThrough();
+}
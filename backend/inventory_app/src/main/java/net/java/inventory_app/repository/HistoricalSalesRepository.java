@@ -1,14 +1,18 @@
 package net.java.inventory_app.repository;
 
+import jakarta.persistence.QueryHint;
 import net.java.inventory_app.entity.HistoricalSales;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface HistoricalSalesRepository extends JpaRepository<HistoricalSales, Long> {
+public interface HistoricalSalesRepository extends JpaRepository<HistoricalSales, Long>, HistoricalSalesRepositoryCustom {
     List<HistoricalSales> findByProductId(Long productId);
     List<HistoricalSales> findByProductIdAndSaleDateBetween(Long productId, LocalDate startDate, LocalDate endDate);
     
@@ -17,4 +21,38 @@ public interface HistoricalSalesRepository extends JpaRepository<HistoricalSales
     
     @Query("SELECT SUM(hs.quantitySold) FROM HistoricalSales hs WHERE hs.product.id = ?1 AND hs.saleDate BETWEEN ?2 AND ?3")
     Integer getTotalSalesForPeriod(Long productId, LocalDate startDate, LocalDate endDate);
-}
\ No newline at end of file
+    
+    @Query("SELECT MIN(hs.saleDate) FROM HistoricalSales hs")
+    LocalDate findFirstSaleDate();
+    
+    @Query("SELECT MAX(hs.saleDate) FROM HistoricalSales hs")
+    LocalDate findLastSaleDate();
+    
+    // Stream [productId, saleDate, quantitySold] rows for every product, grouped by product and ordered by date.
+    // A fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT hs.product.id, hs.saleDate, hs.quantitySold FROM HistoricalSales hs WHERE hs.saleDate BETWEEN ?1 AND ?2 ORDER BY hs.product.id, hs.saleDate")
+    Stream<Object[]> streamSalesWindow(LocalDate startDate, LocalDate endDate);
+    
+    // Same as streamSalesWindow, restricted to products at or below their reorder point
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT hs.product.id, hs.saleDate, hs.quantitySold FROM HistoricalSales hs " +
+           "WHERE hs.product.currentStock <= hs.product.reorderPoint AND hs.saleDate BETWEEN ?1 AND ?2 " +
+           "ORDER BY hs.product.id, hs.saleDate")
+    Stream<Object[]> streamRestockCandidateSalesWindow(LocalDate startDate, LocalDate endDate);
+    
+    // Stream [productId, saleDate, quantitySold] for sale dates after ?1 (all if null) up to ?2, by product then date
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT hs.product.id, hs.saleDate, hs.quantitySold FROM HistoricalSales hs " +
+           "WHERE (?1 IS NULL OR hs.saleDate > ?1) AND hs.saleDate <= ?2 ORDER BY hs.product.id, hs.saleDate")
+    Stream<Object[]> streamDailySalesAfter(LocalDate after, LocalDate through);
+    
+    @Query("SELECT DISTINCT hs.product.id FROM HistoricalSales hs WHERE hs.saleDate BETWEEN ?1 AND ?2")
+    List<Long> findProductIdsWithSalesBetween(LocalDate startDate, LocalDate endDate);
+    
+    // Stream [productId, saleDate, quantitySold, revenue] for the sale dates between ?1 and ?2 (inclusive)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT hs.product.id, hs.saleDate, hs.quantitySold, hs.revenue FROM HistoricalSales hs " +
+           "WHERE hs.saleDate BETWEEN ?1 AND ?2")
+    Stream<Object[]> streamDailySalesBetween(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,30 @@
+package net.java.inventory_app.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface HistoricalSalesRepositoryCustom {
+
+    // Outcome of one incremental fold: the new high-water mark (source row id), the upserted day rows and the
+    // earliest sale date they landed on (null when nothing was folded)
+    record RollupResult(long highWaterMark, long sourceRows, int affectedRows, LocalDate firstDay) {
+    }
+
+    // Fold order_items with id > afterId into per-product per-day quantity and revenue. Only the contiguous run of
+    // rows whose order is older than settledBefore is taken, so a row committed late below the mark is not skipped.
+    RollupResult rollUpOrderItems(long afterId, LocalDateTime settledBefore);
+
+    // Same for STOCK_OUT transactions that did not come from an order (handler not starting with orderHandlerPrefix),
+    // valued at the product's current price
+    RollupResult rollUpStockOuts(long afterId, LocalDateTime settledBefore, String orderHandlerPrefix);
+
+    // Where a first rollup starts when historical_sales already holds days up to seededThrough: the id just below
+    // the first order item / transaction dated after that day, so seeded days are not counted a second time
+    long orderItemsMarkAfter(LocalDate seededThrough);
+
+    long stockOutsMarkAfter(LocalDate seededThrough);
+
+    // Merge duplicate (product, day) rows into one and add the unique key the rollup's upsert relies on, unless
+    // it exists; returns the number of rows merged away
+    int ensureUniqueKey();
+}
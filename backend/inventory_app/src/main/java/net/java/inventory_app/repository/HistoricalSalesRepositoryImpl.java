@@ -0,0 +1,135 @@
+package net.java.inventory_app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class HistoricalSalesRepositoryImpl implements HistoricalSalesRepositoryCustom {
+
+    // Adds to existing (product_id, sale_date) rows; the derived table keeps the GROUP BY apart from the UPDATE clause
+    private static final String UPSERT_PREFIX =
+            "INSERT INTO historical_sales (product_id, sale_date, quantity_sold, revenue) SELECT * FROM (";
+    private static final String UPSERT_SUFFIX =
+            ") AS s ON DUPLICATE KEY UPDATE quantity_sold = quantity_sold + VALUES(quantity_sold), " +
+            "revenue = revenue + VALUES(revenue)";
+
+    private static final String ORDER_ITEMS_FIRST_UNSETTLED_SQL =
+            "SELECT MIN(oi.id) FROM order_items oi JOIN orders o ON o.id = oi.order_id WHERE oi.id > ? AND o.order_date >= ?";
+    private static final String ORDER_ITEMS_RANGE_SQL =
+            "SELECT MAX(oi.id), COUNT(*) FROM order_items oi WHERE oi.id > ? AND oi.id < ?";
+    private static final String ORDER_ITEMS_FIRST_DAY_SQL =
+            "SELECT MIN(DATE(o.order_date)) FROM order_items oi JOIN orders o ON o.id = oi.order_id WHERE oi.id > ? AND oi.id <= ?";
+    private static final String ORDER_ITEMS_UPSERT_SQL = UPSERT_PREFIX +
+            "SELECT oi.product_id, DATE(o.order_date), SUM(oi.quantity), SUM(oi.quantity * oi.price_at_purchase) " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id WHERE oi.id > ? AND oi.id <= ? " +
+            "GROUP BY oi.product_id, DATE(o.order_date)" + UPSERT_SUFFIX;
+
+    private static final String STOCK_OUTS_FIRST_UNSETTLED_SQL =
+            "SELECT MIN(t.id) FROM transactions t WHERE t.id > ? AND t.timestamp >= ?";
+    private static final String STOCK_OUTS_RANGE_SQL =
+            "SELECT MAX(t.id), COUNT(*) FROM transactions t WHERE t.id > ? AND t.id < ?";
+    private static final String STOCK_OUTS_FIRST_DAY_SQL =
+            "SELECT MIN(DATE(t.timestamp)) FROM transactions t WHERE t.id > ? AND t.id <= ? " +
+            "AND t.transaction_type = 'STOCK_OUT' AND t.handler NOT LIKE ?";
+    private static final String STOCK_OUTS_UPSERT_SQL = UPSERT_PREFIX +
+            "SELECT t.product_id, DATE(t.timestamp), SUM(t.quantity), SUM(t.quantity * p.price) " +
+            "FROM transactions t JOIN products p ON p.id = t.product_id WHERE t.id > ? AND t.id <= ? " +
+            "AND t.transaction_type = 'STOCK_OUT' AND t.handler NOT LIKE ? " +
+            "GROUP BY t.product_id, DATE(t.timestamp)" + UPSERT_SUFFIX;
+
+    private static final String ORDER_ITEMS_MARK_SQL =
+            "SELECT COALESCE((SELECT MIN(oi.id) - 1 FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+            "WHERE o.order_date >= ?), (SELECT MAX(id) FROM order_items), 0)";
+    private static final String STOCK_OUTS_MARK_SQL =
+            "SELECT COALESCE((SELECT MIN(t.id) - 1 FROM transactions t WHERE t.timestamp >= ?), " +
+            "(SELECT MAX(id) FROM transactions), 0)";
+
+    private static final String UNIQUE_KEY = "uk_historical_sales_product_date";
+
+    private static final String UNIQUE_KEY_EXISTS_SQL =
+            "SELECT COUNT(*) FROM information_schema.statistics " +
+            "WHERE table_schema = DATABASE() AND table_name = 'historical_sales' AND index_name = '" + UNIQUE_KEY + "'";
+
+    // The oldest row of every duplicated (product, day) takes the day's totals, then the others are removed
+    private static final String MERGE_DUPLICATES_SQL =
+            "UPDATE historical_sales h JOIN (SELECT MIN(id) AS keep_id, SUM(quantity_sold) AS quantity, " +
+            "SUM(revenue) AS revenue FROM historical_sales GROUP BY product_id, sale_date HAVING COUNT(*) > 1) d " +
+            "ON h.id = d.keep_id SET h.quantity_sold = d.quantity, h.revenue = d.revenue";
+    private static final String DELETE_DUPLICATES_SQL =
+            "DELETE h FROM historical_sales h JOIN historical_sales older " +
+            "ON older.product_id = h.product_id AND older.sale_date = h.sale_date AND older.id < h.id";
+
+    private static final String ADD_UNIQUE_KEY_SQL =
+            "ALTER TABLE historical_sales ADD CONSTRAINT " + UNIQUE_KEY + " UNIQUE (product_id, sale_date)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public HistoricalSalesRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public RollupResult rollUpOrderItems(long afterId, LocalDateTime settledBefore) {
+        long[] range = settledRange(ORDER_ITEMS_FIRST_UNSETTLED_SQL, ORDER_ITEMS_RANGE_SQL, afterId, settledBefore);
+        if (range == null) {
+            return new RollupResult(afterId, 0, 0, null);
+        }
+        Date firstDay = jdbcTemplate.queryForObject(ORDER_ITEMS_FIRST_DAY_SQL, Date.class, afterId, range[0]);
+        int affected = jdbcTemplate.update(ORDER_ITEMS_UPSERT_SQL, afterId, range[0]);
+        return new RollupResult(range[0], range[1], affected, firstDay != null ? firstDay.toLocalDate() : null);
+    }
+
+    @Override
+    public RollupResult rollUpStockOuts(long afterId, LocalDateTime settledBefore, String orderHandlerPrefix) {
+        long[] range = settledRange(STOCK_OUTS_FIRST_UNSETTLED_SQL, STOCK_OUTS_RANGE_SQL, afterId, settledBefore);
+        if (range == null) {
+            return new RollupResult(afterId, 0, 0, null);
+        }
+        String notFromOrders = orderHandlerPrefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        Date firstDay = jdbcTemplate.queryForObject(STOCK_OUTS_FIRST_DAY_SQL, Date.class, afterId, range[0], notFromOrders);
+        int affected = jdbcTemplate.update(STOCK_OUTS_UPSERT_SQL, afterId, range[0], notFromOrders);
+        return new RollupResult(range[0], range[1], affected, firstDay != null ? firstDay.toLocalDate() : null);
+    }
+
+    @Override
+    public long orderItemsMarkAfter(LocalDate seededThrough) {
+        Long mark = jdbcTemplate.queryForObject(ORDER_ITEMS_MARK_SQL, Long.class,
+                Timestamp.valueOf(seededThrough.plusDays(1).atStartOfDay()));
+        return mark != null ? mark : 0;
+    }
+
+    @Override
+    public long stockOutsMarkAfter(LocalDate seededThrough) {
+        Long mark = jdbcTemplate.queryForObject(STOCK_OUTS_MARK_SQL, Long.class,
+                Timestamp.valueOf(seededThrough.plusDays(1).atStartOfDay()));
+        return mark != null ? mark : 0;
+    }
+
+    @Override
+    public int ensureUniqueKey() {
+        Integer existing = jdbcTemplate.queryForObject(UNIQUE_KEY_EXISTS_SQL, Integer.class);
+        if (existing != null && existing > 0) {
+            return 0;
+        }
+        // ddl-auto cannot add the key while duplicates exist; without it the upsert would insert more of them
+        jdbcTemplate.update(MERGE_DUPLICATES_SQL);
+        int removed = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+        jdbcTemplate.execute(ADD_UNIQUE_KEY_SQL);
+        return removed;
+    }
+
+    // {last id, row count} of the rows after afterId and before the first unsettled one; null if there are none
+    private long[] settledRange(String firstUnsettledSql, String rangeSql, long afterId, LocalDateTime settledBefore) {
+        Long firstUnsettled = jdbcTemplate.queryForObject(firstUnsettledSql, Long.class, afterId, Timestamp.valueOf(settledBefore));
+        long upperExclusive = firstUnsettled != null ? firstUnsettled : Long.MAX_VALUE;
+        return jdbcTemplate.queryForObject(rangeSql, (rs, rowNum) -> {
+            long lastId = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{lastId, rs.getLong(2)};
+        }, afterId, upperExclusive);
+    }
+}
@@ -0,0 +1,19 @@
+package net.java.inventory_app.repository;
+
+import jakarta.persistence.LockModeType;
+import net.java.inventory_app.entity.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+
+    // Load a checkpoint with a row lock (SELECT ... FOR UPDATE) so two instances do not process the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM LedgerCheckpoint c WHERE c.name = ?1")
+    Optional<LedgerCheckpoint> findByNameForUpdate(String name);
+}
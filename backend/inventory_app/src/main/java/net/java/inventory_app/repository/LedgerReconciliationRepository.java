@@ -0,0 +1,13 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.LedgerReconciliation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerReconciliationRepository extends JpaRepository<LedgerReconciliation, Long> {
+
+    List<LedgerReconciliation> findAllByOrderByIdDesc();
+}
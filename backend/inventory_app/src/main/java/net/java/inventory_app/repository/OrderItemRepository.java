@@ -1,17 +1,29 @@
 package net.java.inventory_app.repository;
 
+import jakarta.persistence.QueryHint;
 import net.java.inventory_app.entity.OrderItem;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long>, OrderItemRepositoryCustom {
     
     // Find order items by order ID
     List<OrderItem> findByOrderId(Long orderId);
     
     // Find order items by product ID
     List<OrderItem> findByProductId(Long productId);
-}
\ No newline at end of file
+    
+    // (productId, orderDate, quantity) per order and product since the given time, streamed from a MySQL cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT oi.product.id, o.orderDate, SUM(oi.quantity) FROM OrderItem oi JOIN oi.order o " +
+           "WHERE o.orderDate >= ?1 GROUP BY o.id, o.orderDate, oi.product.id")
+    Stream<Object[]> streamSalesSince(LocalDateTime from);
+}
@@ -0,0 +1,11 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.OrderItem;
+
+import java.util.List;
+
+public interface OrderItemRepositoryCustom {
+
+    // Insert order items in JDBC batches and assign the generated ids back to them
+    void batchInsert(List<OrderItem> orderItems, int batchSize);
+}
@@ -0,0 +1,52 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+public class OrderItemRepositoryImpl implements OrderItemRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_items (order_id, product_id, quantity, price_at_purchase) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderItemRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(List<OrderItem> orderItems, int batchSize) {
+        if (orderItems.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int start = 0; start < orderItems.size(); start += batchSize) {
+                    List<OrderItem> batch = orderItems.subList(start, Math.min(start + batchSize, orderItems.size()));
+                    for (OrderItem item : batch) {
+                        ps.setLong(1, item.getOrder().getId());
+                        ps.setLong(2, item.getProduct().getId());
+                        ps.setInt(3, item.getQuantity());
+                        ps.setDouble(4, item.getPriceAtPurchase());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < batch.size() && keys.next(); i++) {
+                            batch.get(i).setId(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -1,6 +1,9 @@
 package net.java.inventory_app.repository;
 
 import net.java.inventory_app.entity.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -38,4 +41,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Sum revenue for current month - NATIVE SQL
     @Query(value = "SELECT COALESCE(SUM(total_amount), 0.0) FROM orders WHERE MONTH(order_date) = MONTH(CURDATE()) AND YEAR(order_date) = YEAR(CURDATE())", nativeQuery = true)
     Double sumRevenueThisMonth();
-}
\ No newline at end of file
+    
+    // Keyset page (newest first, ties broken by id) for cursor pagination
+    Window<Order> findAllByOrderByOrderDateDescIdDesc(ScrollPosition position, Limit limit);
+}
@@ -1,14 +1,23 @@
 package net.java.inventory_app.repository;
 
+import net.java.inventory_app.dto.RestockCandidate;
+import jakarta.persistence.LockModeType;
 import net.java.inventory_app.entity.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     
     // Get most bought products - Using native SQL to avoid JPA issues
     @Query(value = "SELECT * FROM products ORDER BY purchase_count DESC LIMIT 10", nativeQuery = true)
@@ -17,4 +26,59 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Get low stock products - Using native SQL
     @Query(value = "SELECT * FROM products WHERE current_stock < ?1 AND current_stock > 0 ORDER BY current_stock ASC", nativeQuery = true)
     List<Product> findByCurrentStockLessThanAndCurrentStockGreaterThan(Integer threshold, Integer min);
-}
\ No newline at end of file
+    
+    // Products at or below their reorder point, selected in the database
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.currentStock AS currentStock, " +
+           "p.reorderPoint AS reorderPoint, p.reorderQuantity AS reorderQuantity, " +
+           "p.leadTimeDays AS leadTimeDays, p.purchaseCount AS purchaseCount " +
+           "FROM Product p WHERE p.currentStock <= p.reorderPoint ORDER BY p.id")
+    List<RestockCandidate> findRestockCandidates();
+    
+    // Atomically add stock; returns 0 if the product does not exist
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.currentStock = p.currentStock + ?2, p.version = p.version + 1 WHERE p.id = ?1")
+    int incrementStock(Long productId, Integer quantity);
+    
+    // Atomically remove stock only if enough is available; returns 0 if not (or if the product does not exist)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.currentStock = p.currentStock - ?2, p.version = p.version + 1 WHERE p.id = ?1 AND p.currentStock >= ?2")
+    int decrementStock(Long productId, Integer quantity);
+    
+    // Load products with row locks (SELECT ... FOR UPDATE), locking in ascending id order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN ?1 ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(Collection<Long> ids);
+    
+    // (id, name, purchaseCount) for every product, used to build the search index
+    @Query("SELECT p.id, p.name, p.purchaseCount FROM Product p")
+    List<Object[]> findSearchEntries();
+    
+    // (id, purchaseCount) for every product, used to build the top sellers ranking
+    @Query("SELECT p.id, p.purchaseCount FROM Product p")
+    List<Object[]> findPurchaseCounts();
+    
+    // (id, currentStock, reorderPoint) for every product, used to build the stock level index
+    @Query("SELECT p.id, p.currentStock, p.reorderPoint FROM Product p")
+    List<Object[]> findStockLevelEntries();
+    
+    // (id, currentStock, reorderPoint) for a set of products
+    @Query("SELECT p.id, p.currentStock, p.reorderPoint FROM Product p WHERE p.id IN ?1")
+    List<Object[]> findStockLevelEntries(Collection<Long> ids);
+    
+    // Restock candidates for the given products (ids from the stock level index)
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.currentStock AS currentStock, " +
+           "p.reorderPoint AS reorderPoint, p.reorderQuantity AS reorderQuantity, " +
+           "p.leadTimeDays AS leadTimeDays, p.purchaseCount AS purchaseCount " +
+           "FROM Product p WHERE p.id IN ?1 AND p.currentStock <= p.reorderPoint ORDER BY p.id")
+    List<RestockCandidate> findRestockCandidates(Collection<Long> ids);
+    
+    // Products expiring between the two dates (inclusive)
+    List<Product> findByExpiryDateBetween(LocalDate from, LocalDate to);
+    
+    // Current stock for a set of products, as (id, currentStock) pairs
+    @Query("SELECT p.id, p.currentStock FROM Product p WHERE p.id IN ?1")
+    List<Object[]> findStockLevels(Collection<Long> ids);
+    
+    // Keyset page (id) for cursor pagination
+    Window<Product> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
+}
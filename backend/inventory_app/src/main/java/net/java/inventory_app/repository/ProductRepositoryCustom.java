@@ -0,0 +1,22 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.Product;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    // Apply signed stock deltas as one JDBC batch of conditional updates.
+    // Each row is {productId, delta}; the returned count is 0 where the product is missing
+    // or the delta would take stock below zero.
+    int[] applyStockDeltas(List<long[]> deltas);
+
+    // Insert new products (id ignored) as one JDBC batch; purchase count starts at 0 and null reorder settings
+    // take the entity defaults
+    int[] batchInsertProducts(List<Product> products);
+
+    // Insert products with the given ids, or update the catalog columns of existing rows. Null optional columns
+    // (image url, expiry date, reorder settings) keep the stored value, so a partial file only changes what it has.
+    // Stock and purchase count of existing rows are left alone; they change through transactions and orders.
+    int[] batchUpsertProducts(List<Product> products);
+}
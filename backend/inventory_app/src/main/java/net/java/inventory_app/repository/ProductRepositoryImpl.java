@@ -0,0 +1,125 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE products SET current_stock = current_stock + ?, version = version + 1 WHERE id = ? AND current_stock + ? >= 0";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, price, image_url, current_stock, expiry_date, reorder_point, reorder_quantity, " +
+            "lead_time_days, purchase_count, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 0)";
+
+    // The optional catalog columns are bound a second time as given (null when the source left them out), so an
+    // existing row only takes the values the import actually has; a new row gets the entity defaults
+    private static final String UPSERT_SQL =
+            "INSERT INTO products (name, price, image_url, current_stock, expiry_date, reorder_point, reorder_quantity, " +
+            "lead_time_days, purchase_count, version, id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), price = VALUES(price), image_url = COALESCE(?, image_url), " +
+            "expiry_date = COALESCE(?, expiry_date), reorder_point = COALESCE(?, reorder_point), " +
+            "reorder_quantity = COALESCE(?, reorder_quantity), lead_time_days = COALESCE(?, lead_time_days), " +
+            "version = version + 1";
+
+    private static final Product DEFAULTS = new Product();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProductRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] applyStockDeltas(List<long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long[] row = deltas.get(i);
+                ps.setLong(1, row[1]);
+                ps.setLong(2, row[0]);
+                ps.setLong(3, row[1]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deltas.size();
+            }
+        });
+    }
+
+    @Override
+    public int[] batchInsertProducts(List<Product> products) {
+        return batchWrite(INSERT_SQL, products, false);
+    }
+
+    @Override
+    public int[] batchUpsertProducts(List<Product> products) {
+        return batchWrite(UPSERT_SQL, products, true);
+    }
+
+    private int[] batchWrite(String sql, List<Product> products, boolean withId) {
+        if (products.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Product product = products.get(i);
+                ps.setString(1, product.getName());
+                ps.setDouble(2, product.getPrice());
+                ps.setString(3, product.getImageUrl());
+                ps.setInt(4, product.getCurrentStock() != null ? product.getCurrentStock() : 0);
+                setNullableDate(ps, 5, product.getExpiryDate());
+                setNullableInt(ps, 6, orDefault(product.getReorderPoint(), DEFAULTS.getReorderPoint()));
+                setNullableInt(ps, 7, orDefault(product.getReorderQuantity(), DEFAULTS.getReorderQuantity()));
+                setNullableInt(ps, 8, orDefault(product.getLeadTimeDays(), DEFAULTS.getLeadTimeDays()));
+                if (withId) {
+                    ps.setLong(9, product.getId());
+                    ps.setString(10, product.getImageUrl());
+                    setNullableDate(ps, 11, product.getExpiryDate());
+                    setNullableInt(ps, 12, product.getReorderPoint());
+                    setNullableInt(ps, 13, product.getReorderQuantity());
+                    setNullableInt(ps, 14, product.getLeadTimeDays());
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return products.size();
+            }
+        });
+    }
+
+    private static Integer orDefault(Integer value, Integer defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static void setNullableDate(PreparedStatement ps, int index, LocalDate value) throws SQLException {
+        if (value != null) {
+            ps.setObject(index, value);
+        } else {
+            ps.setNull(index, Types.DATE);
+        }
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+}
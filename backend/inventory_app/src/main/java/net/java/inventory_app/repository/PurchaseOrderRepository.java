@@ -1,6 +1,9 @@
 package net.java.inventory_app.repository;
 
 import net.java.inventory_app.entity.PurchaseOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,4 +14,7 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
     List<PurchaseOrder> findByStatus(String status);
     List<PurchaseOrder> findAllByOrderByCreatedAtDesc();
     List<PurchaseOrder> findByCreatedById(Long userId);
-}
\ No newline at end of file
+    
+    // Keyset page (newest first, ties broken by id) for cursor pagination
+    Window<PurchaseOrder> findAllByOrderByCreatedAtDescIdDesc(ScrollPosition position, Limit limit);
+}
@@ -1,14 +1,23 @@
 package net.java.inventory_app.repository;
 
+import jakarta.persistence.QueryHint;
+import net.java.inventory_app.dto.TransactionExportRow;
 import net.java.inventory_app.entity.Transaction;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     
     // Find all transactions for a specific product
     List<Transaction> findByProductId(Long productId);
@@ -24,4 +33,21 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     
     // Find all transactions ordered by timestamp (most recent first)
     List<Transaction> findAllByOrderByTimestampDesc();
-}
\ No newline at end of file
+    
+    // Net stock delta per product (and the highest id seen) for journal rows written after a checkpoint
+    @Query("SELECT t.product.id, SUM(CASE WHEN t.transactionType = 'STOCK_IN' THEN t.quantity ELSE -t.quantity END), MAX(t.id) " +
+           "FROM Transaction t WHERE t.handler = ?1 AND t.id > ?2 GROUP BY t.product.id ORDER BY t.product.id")
+    List<Object[]> sumJournalDeltasAfter(String handler, Long afterId);
+    
+    // Keyset page (newest first, ties broken by id) for cursor pagination
+    Window<Transaction> findAllByOrderByTimestampDescIdDesc(ScrollPosition position, Limit limit);
+    
+    // Stream export rows oldest first; null arguments mean no filter. Must be consumed inside a transaction.
+    // A fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new net.java.inventory_app.dto.TransactionExportRow(t.id, t.timestamp, t.transactionType, t.quantity, " +
+           "p.id, p.name, t.handler, t.notes) FROM Transaction t JOIN t.product p " +
+           "WHERE (?1 IS NULL OR t.timestamp >= ?1) AND (?2 IS NULL OR t.timestamp < ?2) AND (?3 IS NULL OR p.id = ?3) " +
+           "ORDER BY t.timestamp, t.id")
+    Stream<TransactionExportRow> streamForExport(LocalDateTime from, LocalDateTime to, Long productId);
+}
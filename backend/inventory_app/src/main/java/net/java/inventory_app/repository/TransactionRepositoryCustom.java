@@ -0,0 +1,11 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.Transaction;
+
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+
+    // Insert transactions in JDBC batches and assign the generated ids back to them
+    void batchInsert(List<Transaction> transactions, int batchSize);
+}
@@ -0,0 +1,57 @@
+package net.java.inventory_app.repository;
+
+import net.java.inventory_app.entity.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (product_id, transaction_type, quantity, handler, timestamp, notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TransactionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(List<Transaction> transactions, int batchSize) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        // IDENTITY ids rule out Hibernate insert batching, so batch at the JDBC level and read the keys back
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int start = 0; start < transactions.size(); start += batchSize) {
+                    List<Transaction> batch = transactions.subList(start, Math.min(start + batchSize, transactions.size()));
+                    for (Transaction transaction : batch) {
+                        ps.setLong(1, transaction.getProduct().getId());
+                        ps.setString(2, transaction.getTransactionType());
+                        ps.setInt(3, transaction.getQuantity());
+                        ps.setString(4, transaction.getHandler());
+                        ps.setTimestamp(5, Timestamp.valueOf(transaction.getTimestamp()));
+                        ps.setString(6, transaction.getNotes());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < batch.size() && keys.next(); i++) {
+                            batch.get(i).setId(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -1,6 +1,9 @@
 package net.java.inventory_app.repository;
 
 import net.java.inventory_app.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,4 +17,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     // Check if email already exists
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+    
+    // Keyset page (id) for cursor pagination
+    Window<User> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
+}
@@ -0,0 +1,681 @@
+package net.java.inventory_app.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory autocomplete index over product names.
+ * Names are split into lowercase tokens. Each token keeps two posting lists of product ordinals (products where it
+ * is the first word, and the rest), sorted by static rank: popularity (purchase count), then shorter name, then id.
+ * A query term matches the tokens it is a prefix of and scores exact 3 / prefix 2, +1 on the first word; results
+ * rank by the sum over terms, then by static rank. The most selective term drives the scan: its postings are visited
+ * best class first and in static-rank order, so a query stops as soon as no remaining posting can enter the top
+ * results. Other terms never walk their postings: they are checked against the candidate's own tokens, behind two
+ * 64-bit masks of the tokens' first characters and short prefixes, so most misses never leave the primitive arrays.
+ * A trigram map (also in static-rank order) catches infix matches and small typos when prefixes alone do not fill
+ * the result list. The prefix scan looks at no more than MAX_CANDIDATES postings and each trigram contributes at
+ * most MAX_GRAM_CANDIDATES, the most popular first, so short and common queries cost the same on any catalog size.
+ * Ranking data lives in primitive arrays indexed by ordinal, and per-query buffers are reused per thread.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final int GRAM = 3;
+    private static final double MIN_FUZZY_OVERLAP = 0.5;
+    private static final int MAX_CANDIDATES = 4096;
+    private static final int MAX_GRAM_CANDIDATES = 4 * MAX_CANDIDATES;
+
+    public record Hit(Long productId, String name, double score) {
+    }
+
+    // Indexed product; its ordinal is its slot in the primitive arrays below
+    private record Doc(int ordinal, long id, String name, String[] tokens, String[] grams) {
+    }
+
+    private static final class Postings {
+        private final IntList firstWord = new IntList();
+        private final IntList otherWord = new IntList();
+    }
+
+    private record Scored(int ordinal, double score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final List<Doc> byOrdinal = new ArrayList<>();
+    private int[] popularity = new int[1024];
+    private int[] nameLength = new int[1024];
+    private long[] ids = new long[1024];
+    private long[] initialMasks = new long[1024];
+    private long[] prefixMasks = new long[1024];
+    private final TreeMap<String, Postings> tokenPostings = new TreeMap<>();
+    private final Map<String, IntList> gramPostings = new HashMap<>();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    // Add or replace a product
+    public void put(Long productId, String name, Integer productPopularity) {
+        lock.writeLock().lock();
+        try {
+            unindex(docs.remove(productId));
+            Doc doc = newDoc(productId, name, productPopularity);
+            for (int i = 0; i < doc.tokens.length; i++) {
+                if (!isRepeatedToken(doc, i)) {
+                    postingList(doc, i).insertSorted(doc.ordinal, this::compareStatic);
+                }
+            }
+            insertGrams(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replace the whole index, e.g. at startup; rows are (id, name, popularity)
+    public void rebuild(Collection<Object[]> rows) {
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            byOrdinal.clear();
+            tokenPostings.clear();
+            gramPostings.clear();
+            // Hand out ordinals in static-rank order, so postings walked best first read the arrays front to back
+            List<Object[]> ranked = new ArrayList<>(rows);
+            ranked.sort(Comparator.comparingInt((Object[] row) -> row[2] != null ? -(Integer) row[2] : 0)
+                    .thenComparingInt(row -> row[1] != null ? ((String) row[1]).length() : 0)
+                    .thenComparingLong(row -> (Long) row[0]));
+            for (Object[] row : ranked) {
+                Doc doc = newDoc((Long) row[0], (String) row[1], (Integer) row[2]);
+                for (int i = 0; i < doc.tokens.length; i++) {
+                    if (!isRepeatedToken(doc, i)) {
+                        postingList(doc, i).add(doc.ordinal);
+                    }
+                }
+                addGrams(doc);
+            }
+            // Already in order unless names tie on everything but id; the merge sort only checks that
+            for (Postings postings : tokenPostings.values()) {
+                postings.firstWord.sort(this::compareStatic);
+                postings.otherWord.sort(this::compareStatic);
+            }
+            for (IntList postings : gramPostings.values()) {
+                postings.sort(this::compareStatic);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            unindex(docs.remove(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best matches for a partially typed query, best first
+    public List<Hit> search(String query, int limit) {
+        String[] terms = new LinkedHashSet<>(Arrays.asList(tokenize(query))).toArray(new String[0]);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        List<Hit> hits = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            Scratch buffers = scratch.get();
+            buffers.reset(byOrdinal.size());
+            PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, this::compare);
+            prefixSearch(terms, top, limit, buffers);
+            if (top.size() < limit) {
+                fuzzySearch(terms, top, limit, buffers);
+            }
+            while (!top.isEmpty()) {
+                Scored scored = top.poll();
+                Doc doc = byOrdinal.get(scored.ordinal);
+                hits.add(new Hit(doc.id, doc.name, scored.score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    private void prefixSearch(String[] terms, PriorityQueue<Scored> top, int limit, Scratch buffers) {
+        // Drive the scan with the most selective term
+        String driver = terms[0];
+        long driverCount = Long.MAX_VALUE;
+        for (String term : terms) {
+            long count = postingCount(term, driverCount);
+            if (count < driverCount) {
+                driver = term;
+                driverCount = count;
+            }
+        }
+
+        int otherMax = 0;
+        for (String term : terms) {
+            if (term.equals(driver)) continue;
+            int termMax = bestScore(term);
+            if (termMax == 0) {
+                return;
+            }
+            otherMax += termMax;
+        }
+
+        buffers.verifiedCount = 0;
+        for (String term : terms) {
+            if (!term.equals(driver)) {
+                buffers.verify(term);
+            }
+        }
+
+        // Visit postings by class, best class first: exact first word 4, exact other 3, prefix first word 3, prefix other 2
+        Postings exact = tokenPostings.get(driver);
+        if (exact != null) {
+            buffers.lists.size = 0;
+            buffers.lists.add(exact.firstWord);
+            scan(buffers, 4, otherMax, top, limit);
+            buffers.lists.size = 0;
+            buffers.lists.add(exact.otherWord);
+            scan(buffers, 3, otherMax, top, limit);
+        }
+        Map<String, Postings> prefixes = range(driver);
+        buffers.lists.size = 0;
+        for (Map.Entry<String, Postings> entry : prefixes.entrySet()) {
+            if (!entry.getKey().equals(driver)) {
+                buffers.lists.add(entry.getValue().firstWord);
+            }
+        }
+        scan(buffers, 3, otherMax, top, limit);
+        buffers.lists.size = 0;
+        for (Map.Entry<String, Postings> entry : prefixes.entrySet()) {
+            if (!entry.getKey().equals(driver)) {
+                buffers.lists.add(entry.getValue().otherWord);
+            }
+        }
+        scan(buffers, 2, otherMax, top, limit);
+    }
+
+    // Merge buffers.lists in static-rank order, stopping once no later product can beat the current top results
+    private void scan(Scratch buffers, int classScore, int otherMax, PriorityQueue<Scored> top, int limit) {
+        double upperBound = classScore + otherMax;
+        Cursors cursors = buffers.cursors;
+        cursors.start(buffers.lists);
+        while (cursors.size > 0 && buffers.candidates > 0) {
+            int ordinal = cursors.peek();
+
+            if (top.size() >= limit) {
+                Scored worst = top.peek();
+                if (worst.score > upperBound || (worst.score == upperBound && compareStatic(worst.ordinal, ordinal) <= 0)) {
+                    return;
+                }
+            }
+            buffers.candidates--;
+            // A product seen again in a later class cannot score higher there
+            if (buffers.seen[ordinal] != buffers.stamp) {
+                double score = classScore;
+                for (int i = 0; i < buffers.verifiedCount && score > 0; i++) {
+                    boolean possible = (initialMasks[ordinal] & buffers.verifiedInitials[i]) != 0
+                            && (prefixMasks[ordinal] & buffers.verifiedPrefixes[i]) == buffers.verifiedPrefixes[i];
+                    int termScore = possible ? termScore(byOrdinal.get(ordinal), buffers.verified[i]) : 0;
+                    score = termScore > 0 ? score + termScore : 0;
+                }
+                if (score > 0) {
+                    buffers.seen[ordinal] = buffers.stamp;
+                    offer(top, ordinal, score, limit);
+                }
+            }
+            cursors.advance();
+        }
+    }
+
+    // Postings under the prefix, counted up to cap
+    private long postingCount(String prefix, long cap) {
+        long count = 0;
+        for (Postings postings : range(prefix).values()) {
+            count += postings.firstWord.size + postings.otherWord.size;
+            if (count >= cap) break;
+        }
+        return count;
+    }
+
+    // Highest score any product can get for the term, 0 when no token starts with it
+    private int bestScore(String term) {
+        int best = 0;
+        for (Map.Entry<String, Postings> entry : range(term).entrySet()) {
+            int base = entry.getKey().equals(term) ? 3 : 2;
+            best = Math.max(best, entry.getValue().firstWord.size > 0 ? base + 1 : base);
+            if (best == base + 1) {
+                return best; // the exact token sorts first, so nothing later scores higher
+            }
+        }
+        return best;
+    }
+
+    // The term's best score over the product's tokens, 0 when none starts with it
+    private static int termScore(Doc doc, String term) {
+        int best = 0;
+        for (int i = 0; i < doc.tokens.length; i++) {
+            String token = doc.tokens[i];
+            if (token.startsWith(term)) {
+                best = Math.max(best, (token.length() == term.length() ? 3 : 2) + (i == 0 ? 1 : 0));
+            }
+        }
+        return best;
+    }
+
+    private void fuzzySearch(String[] terms, PriorityQueue<Scored> top, int limit, Scratch buffers) {
+        String[] queryGrams = trigrams(terms);
+        if (queryGrams.length == 0) {
+            return;
+        }
+        int[] counts = buffers.counts;
+        IntList touched = buffers.touched;
+        touched.size = 0;
+        for (String gram : queryGrams) {
+            IntList postings = gramPostings.get(gram);
+            if (postings == null) continue;
+            // Most popular first, so a very common gram only contributes its top candidates
+            int end = Math.min(postings.size, MAX_GRAM_CANDIDATES);
+            for (int i = 0; i < end; i++) {
+                int ordinal = postings.values[i];
+                if (counts[ordinal]++ == 0) {
+                    touched.add(ordinal);
+                }
+            }
+        }
+        for (int i = 0; i < touched.size; i++) {
+            int ordinal = touched.values[i];
+            double ratio = (double) counts[ordinal] / queryGrams.length;
+            counts[ordinal] = 0;
+            if (ratio >= MIN_FUZZY_OVERLAP && buffers.seen[ordinal] != buffers.stamp) {
+                offer(top, ordinal, ratio, limit);
+            }
+        }
+    }
+
+    private Map<String, Postings> range(String prefix) {
+        return tokenPostings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void offer(PriorityQueue<Scored> top, int ordinal, double score, int limit) {
+        if (top.size() < limit) {
+            top.add(new Scored(ordinal, score));
+            return;
+        }
+        Scored worst = top.peek();
+        if (compare(ordinal, score, worst.ordinal, worst.score) > 0) {
+            top.poll();
+            top.add(new Scored(ordinal, score));
+        }
+    }
+
+    private int compare(Scored a, Scored b) {
+        return compare(a.ordinal, a.score, b.ordinal, b.score);
+    }
+
+    // Positive if a ranks above b
+    private int compare(int a, double aScore, int b, double bScore) {
+        int c = Double.compare(aScore, bScore);
+        return c != 0 ? c : compareStatic(b, a);
+    }
+
+    // Negative if a has the better static rank
+    private int compareStatic(int a, int b) {
+        int c = Integer.compare(popularity[b], popularity[a]);
+        if (c != 0) return c;
+        c = Integer.compare(nameLength[a], nameLength[b]);
+        if (c != 0) return c;
+        return Long.compare(ids[a], ids[b]);
+    }
+
+    private Doc newDoc(Long productId, String name, Integer productPopularity) {
+        String safeName = name != null ? name : "";
+        String[] tokens = tokenize(safeName);
+        Doc doc = new Doc(byOrdinal.size(), productId, safeName, tokens, trigrams(tokens));
+        if (doc.ordinal == ids.length) {
+            popularity = Arrays.copyOf(popularity, ids.length * 2);
+            nameLength = Arrays.copyOf(nameLength, ids.length * 2);
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            initialMasks = Arrays.copyOf(initialMasks, initialMasks.length * 2);
+            prefixMasks = Arrays.copyOf(prefixMasks, prefixMasks.length * 2);
+        }
+        popularity[doc.ordinal] = productPopularity != null ? productPopularity : 0;
+        nameLength[doc.ordinal] = safeName.length();
+        ids[doc.ordinal] = productId;
+        long initials = 0;
+        long prefixes = 0;
+        for (String token : tokens) {
+            initials |= initialBit(token.charAt(0));
+            for (int n = 2; n <= Math.min(GRAM, token.length()); n++) {
+                prefixes |= prefixBit(token, n);
+            }
+        }
+        initialMasks[doc.ordinal] = initials;
+        prefixMasks[doc.ordinal] = prefixes;
+        docs.put(productId, doc);
+        byOrdinal.add(doc);
+        return doc;
+    }
+
+    private IntList postingList(Doc doc, int tokenIndex) {
+        Postings postings = tokenPostings.computeIfAbsent(doc.tokens[tokenIndex], k -> new Postings());
+        return tokenIndex == 0 ? postings.firstWord : postings.otherWord;
+    }
+
+    private void addGrams(Doc doc) {
+        for (String gram : doc.grams) {
+            gramPostings.computeIfAbsent(gram, k -> new IntList()).add(doc.ordinal);
+        }
+    }
+
+    private void insertGrams(Doc doc) {
+        for (String gram : doc.grams) {
+            gramPostings.computeIfAbsent(gram, k -> new IntList()).insertSorted(doc.ordinal, this::compareStatic);
+        }
+    }
+
+    // The ordinal is not reused; its slot simply stops appearing in postings. Its rank data stays in place, so
+    // the binary searches in removeValue still find it.
+    private void unindex(Doc doc) {
+        if (doc == null) {
+            return;
+        }
+        byOrdinal.set(doc.ordinal, null);
+        for (int i = 0; i < doc.tokens.length; i++) {
+            if (isRepeatedToken(doc, i)) continue;
+            Postings postings = tokenPostings.get(doc.tokens[i]);
+            if (postings == null) continue;
+            (i == 0 ? postings.firstWord : postings.otherWord).removeValue(doc.ordinal, this::compareStatic);
+            if (postings.firstWord.size == 0 && postings.otherWord.size == 0) {
+                tokenPostings.remove(doc.tokens[i]);
+            }
+        }
+        for (String gram : doc.grams) {
+            IntList list = gramPostings.get(gram);
+            if (list == null) continue;
+            list.removeValue(doc.ordinal, this::compareStatic);
+            if (list.size == 0) {
+                gramPostings.remove(gram);
+            }
+        }
+    }
+
+    // A token that already appeared earlier in the same name is indexed once, at its first position
+    private static boolean isRepeatedToken(Doc doc, int tokenIndex) {
+        for (int i = 0; i < tokenIndex; i++) {
+            if (doc.tokens[i].equals(doc.tokens[tokenIndex])) return true;
+        }
+        return false;
+    }
+
+    // Letters and digits get a bit of their own, anything else shares the remaining 28
+    private static long initialBit(char c) {
+        if (c >= 'a' && c <= 'z') return 1L << (c - 'a');
+        if (c >= '0' && c <= '9') return 1L << (26 + c - '0');
+        return 1L << (36 + c % 28);
+    }
+
+    // Hashed bit for the first two or three characters
+    private static long prefixBit(String text, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        // Finalizer of MurmurHash3, so prefixes that differ in one character land on unrelated bits
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return 1L << (hash >>> 26);
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static String[] trigrams(String[] tokens) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : tokens) {
+            for (int i = 0; i + GRAM <= token.length(); i++) {
+                grams.add(token.substring(i, i + GRAM));
+            }
+        }
+        return grams.toArray(new String[0]);
+    }
+
+    // Growable int array used for posting lists
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void insertSorted(int value, IntComparator comparator) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(values[mid], value) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            add(0);
+            System.arraycopy(values, low, values, low + 1, size - 1 - low);
+            values[low] = value;
+        }
+
+        // Binary search in a list sorted by comparator, then close the gap
+        private void removeValue(int value, IntComparator comparator) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int c = comparator.compare(values[mid], value);
+                if (c < 0) {
+                    low = mid + 1;
+                } else if (c > 0) {
+                    high = mid - 1;
+                } else {
+                    System.arraycopy(values, mid + 1, values, mid, size - mid - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        // Merge sort on the primitive array
+        private void sort(IntComparator comparator) {
+            if (size > 1) {
+                mergeSort(values, new int[size], 0, size, comparator);
+            }
+        }
+
+        private static void mergeSort(int[] values, int[] buffer, int from, int to, IntComparator comparator) {
+            if (to - from <= 16) {
+                for (int i = from + 1; i < to; i++) {
+                    int value = values[i];
+                    int j = i - 1;
+                    while (j >= from && comparator.compare(values[j], value) > 0) {
+                        values[j + 1] = values[j];
+                        j--;
+                    }
+                    values[j + 1] = value;
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(values, buffer, from, mid, comparator);
+            mergeSort(values, buffer, mid, to, comparator);
+            if (comparator.compare(values[mid - 1], values[mid]) <= 0) {
+                return;
+            }
+            System.arraycopy(values, from, buffer, from, to - from);
+            int i = from;
+            int j = mid;
+            for (int k = from; k < to; k++) {
+                values[k] = j >= to || (i < mid && comparator.compare(buffer[i], buffer[j]) <= 0) ? buffer[i++] : buffer[j++];
+            }
+        }
+    }
+
+    // Growable array of posting lists, reused for every scan
+    private static final class ListBuffer {
+        private IntList[] lists = new IntList[16];
+        private int size;
+
+        private void add(IntList list) {
+            if (size == lists.length) {
+                lists = Arrays.copyOf(lists, size * 2);
+            }
+            lists[size++] = list;
+        }
+    }
+
+    // Binary min-heap of (list, position) cursors ordered by the static rank of the posting under each cursor
+    private final class Cursors {
+        private IntList[] lists;
+        private int[] list = new int[16];
+        private int[] position = new int[16];
+        private int size;
+
+        private void start(ListBuffer buffer) {
+            lists = buffer.lists;
+            if (list.length < buffer.size) {
+                list = new int[buffer.lists.length];
+                position = new int[buffer.lists.length];
+            }
+            size = 0;
+            for (int i = 0; i < buffer.size; i++) {
+                if (lists[i].size > 0) {
+                    list[size] = i;
+                    position[size] = 0;
+                    size++;
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        private int peek() {
+            return lists[list[0]].values[position[0]];
+        }
+
+        // Move the smallest cursor one posting on, dropping it at the end of its list
+        private void advance() {
+            if (++position[0] >= lists[list[0]].size) {
+                size--;
+                list[0] = list[size];
+                position[0] = position[size];
+            }
+            siftDown(0);
+        }
+
+        private int at(int slot) {
+            return lists[list[slot]].values[position[slot]];
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int smallest = slot;
+                int left = 2 * slot + 1;
+                if (left < size && compareStatic(at(left), at(smallest)) < 0) smallest = left;
+                if (left + 1 < size && compareStatic(at(left + 1), at(smallest)) < 0) smallest = left + 1;
+                if (smallest == slot) return;
+                int swapList = list[slot];
+                int swapPosition = position[slot];
+                list[slot] = list[smallest];
+                position[slot] = position[smallest];
+                list[smallest] = swapList;
+                position[smallest] = swapPosition;
+                slot = smallest;
+            }
+        }
+    }
+
+    // Per-thread query buffers, sized to the ordinal count and reused across queries
+    private final class Scratch {
+        private int[] seen = new int[0]; // == stamp: already offered by this query
+        private int stamp;
+        private int[] counts = new int[0]; // trigram hits per ordinal, left zeroed after each query
+        private final IntList touched = new IntList();
+        private String[] verified = new String[4]; // other terms checked per candidate, with their mask bits
+        private long[] verifiedInitials = new long[4];
+        private long[] verifiedPrefixes = new long[4];
+        private int verifiedCount;
+        private final ListBuffer lists = new ListBuffer();
+        private final Cursors cursors = new Cursors();
+        private int candidates;
+
+        private void verify(String term) {
+            if (verifiedCount == verified.length) {
+                verified = Arrays.copyOf(verified, verifiedCount * 2);
+                verifiedInitials = Arrays.copyOf(verifiedInitials, verifiedCount * 2);
+                verifiedPrefixes = Arrays.copyOf(verifiedPrefixes, verifiedCount * 2);
+            }
+            verified[verifiedCount] = term;
+            verifiedInitials[verifiedCount] = initialBit(term.charAt(0));
+            verifiedPrefixes[verifiedCount] = term.length() > 1 ? prefixBit(term, Math.min(GRAM, term.length())) : 0;
+            verifiedCount++;
+        }
+
+        private void reset(int ordinals) {
+            if (seen.length < ordinals) {
+                seen = new int[ordinals + 1024];
+                counts = new int[ordinals + 1024];
+                stamp = 0;
+            }
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                stamp = 1;
+            }
+            candidates = MAX_CANDIDATES;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntComparator {
+        int compare(int a, int b);
+    }
+}
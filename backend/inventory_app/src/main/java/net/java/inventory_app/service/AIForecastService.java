@@ -1,6 +1,10 @@
 package net.java.inventory_app.service;
 
+import net.java.inventory_app.dto.ForecastRunResult;
+import net.java.inventory_app.dto.RestockCandidate;
 import net.java.inventory_app.entity.DemandForecast;
+import net.java.inventory_app.forecast.ForecastMethod;
+import net.java.inventory_app.forecast.ForecastProgress;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +17,9 @@ public interface AIForecastService {
     // Generate forecasts for all products
     List<DemandForecast> generateAllForecasts(String forecastType);
     
+    // Generate forecasts for all products, reporting progress and throughput
+    ForecastRunResult generateAllForecasts(String forecastType, ForecastProgress progress);
+    
     // Get forecast for a product
     DemandForecast getForecast(Long productId, LocalDate forecastDate, String forecastType);
     
@@ -24,4 +31,10 @@ public interface AIForecastService {
     
     // Analyze historical data and predict
     Integer predictDemand(Long productId, int daysAhead);
+    
+    // Predict with a specific method instead of inventory.forecast.method
+    Integer predictDemand(Long productId, int daysAhead, ForecastMethod method);
+    
+    // Predict demand for all restock candidates from one query over their sales history
+    Map<Long, Integer> predictRestockDemand(List<RestockCandidate> candidates, int daysAhead);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package net.java.inventory_app.service;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.Alert;
 import net.java.inventory_app.entity.Product;
 import java.util.List;
@@ -14,6 +15,9 @@ public interface AlertService {
     // Get all alerts
     List<Alert> getAllAlerts();
     
+    // Get alerts one page at a time (cursor from the previous page, null for the first)
+    CursorPage<Alert> getAlertsPage(String cursor, Integer size);
+    
     // Get unread alerts
     List<Alert> getUnreadAlerts();
     
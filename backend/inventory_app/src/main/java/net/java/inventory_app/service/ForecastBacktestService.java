@@ -0,0 +1,14 @@
+package net.java.inventory_app.service;
+
+import net.java.inventory_app.dto.BacktestReport;
+import net.java.inventory_app.job.ProgressListener;
+
+public interface ForecastBacktestService {
+
+    // Replay the archived sales of every product from rolling origins (the last one horizonDays before the end
+    // of the archive, each earlier one stepDays before the next) and score every forecast method
+    BacktestReport runBacktest(int horizonDays, int origins, int stepDays, ProgressListener<Object> listener);
+
+    // The most recent completed backtest, or null if none has run since startup
+    BacktestReport getLastReport();
+}
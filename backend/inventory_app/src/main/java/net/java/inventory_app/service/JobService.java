@@ -0,0 +1,23 @@
+package net.java.inventory_app.service;
+
+import net.java.inventory_app.job.BackgroundJob;
+
+import java.util.List;
+
+public interface JobService {
+    
+    // Queue a forecast run for all products (coalesces with a running run of the same type)
+    BackgroundJob submitForecastJob(String forecastType);
+    
+    // Queue a restock recommendation scan (coalesces with a running scan)
+    BackgroundJob submitRestockJob();
+    
+    // Queue a forecast accuracy backtest (coalesces with a running backtest)
+    BackgroundJob submitBacktestJob(int horizonDays, int origins, int stepDays);
+    
+    // Get job by ID
+    BackgroundJob getJob(String id);
+    
+    // Get all retained jobs
+    List<BackgroundJob> getAllJobs();
+}
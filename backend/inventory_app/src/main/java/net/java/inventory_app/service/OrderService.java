@@ -1,5 +1,6 @@
 package net.java.inventory_app.service;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.Order;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +13,9 @@ public interface OrderService {
     // Get all orders
     List<Order> getAllOrders();
     
+    // Get orders one page at a time (cursor from the previous page, null for the first)
+    CursorPage<Order> getOrdersPage(String cursor, Integer size);
+    
     // Get orders by user
     List<Order> getOrdersByUser(Long userId);
     
@@ -0,0 +1,11 @@
+package net.java.inventory_app.service;
+
+import net.java.inventory_app.dto.ProductImportResult;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    // Import products from a CSV (with header row) or NDJSON stream; rows with an id are upserted, others inserted
+    ProductImportResult importProducts(InputStream input, String format);
+}
@@ -1,7 +1,10 @@
 package net.java.inventory_app.service;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.search.ProductSearchIndex;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
     
@@ -11,6 +14,12 @@ public interface ProductService {
     // Get all products
     List<Product> getAllProducts();
     
+    // Get products one page at a time (cursor from the previous page, null for the first)
+    CursorPage<Product> getProductsPage(String cursor, Integer size);
+    
+    // Ranked autocomplete over product names
+    List<ProductSearchIndex.Hit> searchProducts(String query, int limit);
+    
     // Get product by ID
     Product getProductById(Long id);
     
@@ -23,6 +32,12 @@ public interface ProductService {
     // Get most bought products
     List<Product> getMostBoughtProducts();
     
+    // Get the `limit` most bought products (limit capped at inventory.top-sellers.max-k)
+    List<Product> getMostBoughtProducts(int limit);
+    
+    // Get the products selling most in a recent window (24h, 7d or 30d) with their estimated units sold
+    List<Map<String, Object>> getTrendingProducts(String window, int limit);
+    
     // Get low stock products
     List<Product> getLowStockProducts(Integer threshold);
 }
\ No newline at end of file
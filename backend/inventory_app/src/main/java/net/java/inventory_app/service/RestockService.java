@@ -1,13 +1,19 @@
 package net.java.inventory_app.service;
 
+import net.java.inventory_app.dto.CursorPage;
+import net.java.inventory_app.dto.RestockRecommendation;
 import net.java.inventory_app.entity.PurchaseOrder;
+import net.java.inventory_app.job.ProgressListener;
 import java.util.List;
 import java.util.Map;
 
 public interface RestockService {
     
     // Get AI-based restock recommendations
-    List<Map<String, Object>> getRestockRecommendations();
+    List<RestockRecommendation> getRestockRecommendations();
+    
+    // Get restock recommendations, reporting progress and partial results
+    List<RestockRecommendation> getRestockRecommendations(ProgressListener<? super RestockRecommendation> listener);
     
     // Generate purchase order
     PurchaseOrder generatePurchaseOrder(List<Map<String, Object>> items, Long userId, Map<String, String> vendorInfo);
@@ -15,6 +21,9 @@ public interface RestockService {
     // Get all purchase orders
     List<PurchaseOrder> getAllPurchaseOrders();
     
+    // Get purchase orders one page at a time (cursor from the previous page, null for the first)
+    CursorPage<PurchaseOrder> getPurchaseOrdersPage(String cursor, Integer size);
+    
     // Get purchase order by ID
     PurchaseOrder getPurchaseOrderById(Long id);
     
@@ -1,7 +1,13 @@
 package net.java.inventory_app.service;
 
+import net.java.inventory_app.dto.CursorPage;
+import net.java.inventory_app.dto.StockMovement;
+import net.java.inventory_app.dto.StockMovementResult;
+import net.java.inventory_app.dto.TransactionExportRow;
 import net.java.inventory_app.entity.Transaction;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TransactionService {
     
@@ -11,9 +17,18 @@ public interface TransactionService {
     // Record stock-out transaction
     Transaction recordStockOut(Long productId, Integer quantity, String handler, String notes);
     
+    // Record many stock-in / stock-out lines in one transaction, with a result per line
+    List<StockMovementResult> recordBulk(List<StockMovement> movements);
+    
     // Get all transactions
     List<Transaction> getAllTransactions();
     
+    // Get transactions one page at a time (cursor from the previous page, null for the first)
+    CursorPage<Transaction> getTransactionsPage(String cursor, Integer size);
+    
+    // Stream transactions in [from, to) (null = unbounded), optionally for one product, to the consumer; returns the row count
+    long exportTransactions(LocalDateTime from, LocalDateTime to, Long productId, Consumer<TransactionExportRow> consumer);
+    
     // Get transactions by product
     List<Transaction> getTransactionsByProduct(Long productId);
     
@@ -1,5 +1,6 @@
 package net.java.inventory_app.service;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.User;
 import java.util.List;
 
@@ -14,6 +15,9 @@ public interface UserService {
     // Get all users
     List<User> getAllUsers();
     
+    // Get users one page at a time (cursor from the previous page, null for the first)
+    CursorPage<User> getUsersPage(String cursor, Integer size);
+    
     // Get user by ID
     User getUserById(Long id);
     
@@ -1,15 +1,37 @@
 package net.java.inventory_app.service.impl;
 
+import net.java.inventory_app.dto.ForecastRunResult;
+import net.java.inventory_app.dto.RestockCandidate;
 import net.java.inventory_app.entity.*;
+import net.java.inventory_app.forecast.DemandEstimator;
+import net.java.inventory_app.forecast.ForecastMethod;
+import net.java.inventory_app.forecast.ForecastProgress;
+import net.java.inventory_app.forecast.ForecastStateUpdater;
+import net.java.inventory_app.forecast.HoltWinters;
+import net.java.inventory_app.forecast.SalesSeriesStore;
 import net.java.inventory_app.repository.*;
 import net.java.inventory_app.service.AIForecastService;
 import net.java.inventory_app.service.AlertService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AIForecastServiceImpl implements AIForecastService {
@@ -26,33 +48,73 @@ public class AIForecastServiceImpl implements AIForecastService {
     @Autowired
     private OrderItemRepository orderItemRepository;
     
+    @Autowired
+    private ForecastStateRepository forecastStateRepository;
+    
+    @Autowired
+    private ForecastStateUpdater forecastStateUpdater;
+    
+    @Autowired
+    private SalesSeriesStore salesSeriesStore;
+    
     @Autowired
     private AlertService alertService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ForkJoinPool forecastComputePool;
+    
+    @Autowired
+    private ExecutorService forecastIoExecutor;
+    
+    @Value("${inventory.forecast.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${inventory.forecast.execution-mode:PARALLEL}")
+    private String executionMode; // SEQUENTIAL or PARALLEL
+    
+    @Value("${inventory.forecast.max-db-concurrency:4}")
+    private int maxDbConcurrency;
+    
+    @Value("${inventory.forecast.method:BLEND}")
+    private String method; // BLEND, HOLT_WINTERS_ADDITIVE or HOLT_WINTERS_MULTIPLICATIVE
+    
+    @Value("${inventory.forecast.seasonal-history-days:84}")
+    private int seasonalHistoryDays;
+
+    private static final int HISTORY_DAYS = 30;
+    private static final int RECENT_SALES_DAYS = 7;
+
+    private volatile boolean forecastKeyVerified;
 
     @Override
     public DemandForecast generateForecast(Long productId, LocalDate forecastDate, String forecastType) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // Check if forecast already exists
+        // Predict demand using AI algorithm
+        DemandEstimator.Estimate estimate = estimate(product, forecastDate, daysAheadFor(forecastType), configuredMethod());
+        Integer predictedDemand = estimate.predictedDemand();
+        Double confidence = estimate.confidence();
+
+        // Recompute an existing forecast in place, as the batch upsert does
         Optional<DemandForecast> existing = forecastRepository
                 .findByProductIdAndForecastDateAndForecastType(productId, forecastDate, forecastType);
-        
+        DemandForecast forecast;
         if (existing.isPresent()) {
-            return existing.get();
+            forecast = existing.get();
+            forecast.setPredictedDemand(predictedDemand);
+            forecast.setConfidenceScore(confidence);
+            forecast.setCreatedAt(LocalDateTime.now());
+        } else {
+            forecast = new DemandForecast(product, forecastDate, predictedDemand, confidence, forecastType);
         }
-
-        // Predict demand using AI algorithm
-        int daysAhead = forecastType.equals("DAILY") ? 1 : 7;
-        Integer predictedDemand = predictDemand(productId, daysAhead);
-        Double confidence = calculateConfidence(productId);
-
-        // Create forecast
-        DemandForecast forecast = new DemandForecast(product, forecastDate, predictedDemand, confidence, forecastType);
         forecast = forecastRepository.save(forecast);
 
-        // Check for stockout risk
-        if (predictedDemand > product.getCurrentStock()) {
+        // Check for stockout risk; only alert on first generation, like the batch path
+        if (existing.isEmpty() && predictedDemand > product.getCurrentStock()) {
             alertService.createStockoutRiskAlert(product, predictedDemand);
         }
 
@@ -61,20 +123,140 @@ public class AIForecastServiceImpl implements AIForecastService {
 
     @Override
     public List<DemandForecast> generateAllForecasts(String forecastType) {
+        return generateAllForecasts(forecastType, new ForecastProgress()).getForecasts();
+    }
+
+    // Add the unique key the batch upsert relies on once the schema is up, cleaning out old duplicates
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyForecastKey() {
+        try {
+            ensureForecastKey();
+        } catch (RuntimeException e) {
+            System.err.println("demand_forecast unique key missing, batch forecasts disabled: " + e.getMessage());
+        }
+    }
+
+    private synchronized void ensureForecastKey() {
+        if (!forecastKeyVerified) {
+            int removed = forecastRepository.ensureUniqueKey();
+            if (removed > 0) {
+                System.out.println("Removed " + removed + " duplicate demand_forecast rows before adding the unique key");
+            }
+            forecastKeyVerified = true;
+        }
+    }
+
+    @Override
+    public ForecastRunResult generateAllForecasts(String forecastType, ForecastProgress progress) {
+        ensureForecastKey();
         List<Product> products = productRepository.findAll();
-        List<DemandForecast> forecasts = new ArrayList<>();
-        
         LocalDate forecastDate = LocalDate.now().plusDays(1);
-        
-        for (Product product : products) {
+        int daysAhead = daysAheadFor(forecastType);
+        boolean parallel = "PARALLEL".equalsIgnoreCase(executionMode);
+
+        progress.start(products.size());
+
+        ForecastMethod forecastMethod = configuredMethod();
+        Function<Product, DemandEstimator.Estimate> estimator;
+        if (forecastMethod.isSeasonal() && salesSeriesStore.isReady()) {
+            // Holt-Winters fitted per product on its daily series from the in-memory store
+            estimator = product -> estimateSeasonal(product.getId(), product.getPurchaseCount(), forecastDate, daysAhead,
+                    forecastMethod);
+        } else if (forecastStateUpdater.isReady()) {
+            // One read of the per-product smoothing states; each estimate is arithmetic on its state
+            Map<Long, ForecastState> states = new HashMap<>();
+            for (ForecastState state : forecastStateRepository.findAll()) {
+                states.put(state.getProductId(), state);
+            }
+            estimator = product -> estimateFromState(states.get(product.getId()), product.getPurchaseCount(), daysAhead);
+        } else if (salesSeriesStore.isReady()) {
+            // Dense daily series straight from the in-memory store
+            estimator = product -> estimateFromSeries(product.getId(), product.getPurchaseCount(), daysAhead);
+        } else {
+            // One streamed query for the whole 30-day window instead of two range scans per product
+            Map<Long, int[]> salesByProduct = loadSalesWindow(historicalSalesRepository::streamSalesWindow);
+            estimator = product -> estimateFromWindow(salesByProduct.get(product.getId()), product.getPurchaseCount(),
+                    daysAhead);
+        }
+        Set<Long> alreadyForecast = new HashSet<>(forecastRepository.findProductIdsWithForecast(forecastDate, forecastType));
+
+        // Each chunk is computed and then written as one JDBC batch
+        List<List<Product>> chunks = new ArrayList<>();
+        for (int i = 0; i < products.size(); i += batchSize) {
+            chunks.add(products.subList(i, Math.min(i + batchSize, products.size())));
+        }
+
+        List<DemandForecast> stockoutRisks = Collections.synchronizedList(new ArrayList<>());
+
+        if (parallel) {
+            // Math runs on the bounded fork-join pool, writes on virtual threads gated by the semaphore
+            Semaphore dbPermits = new Semaphore(Math.max(1, maxDbConcurrency));
+            CompletableFuture<?>[] pending = chunks.stream()
+                    .map(chunk -> CompletableFuture
+                            .supplyAsync(() -> computeChunk(chunk, estimator, forecastDate, forecastType,
+                                    alreadyForecast, stockoutRisks, progress), forecastComputePool)
+                            .thenAcceptAsync(forecasts -> {
+                                dbPermits.acquireUninterruptibly();
+                                try {
+                                    forecastRepository.upsertAll(forecasts, batchSize);
+                                } finally {
+                                    dbPermits.release();
+                                }
+                                progress.chunkCompleted(forecasts, chunk.size());
+                            }, forecastIoExecutor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(pending).join();
+        } else {
+            for (List<Product> chunk : chunks) {
+                List<DemandForecast> forecasts = computeChunk(chunk, estimator, forecastDate, forecastType,
+                        alreadyForecast, stockoutRisks, progress);
+                forecastRepository.upsertAll(forecasts, batchSize);
+                progress.chunkCompleted(forecasts, chunk.size());
+            }
+        }
+
+        for (DemandForecast risk : stockoutRisks) {
+            alertService.createStockoutRiskAlert(risk.getProduct(), risk.getPredictedDemand());
+        }
+
+        List<DemandForecast> forecasts = forecastRepository.findByForecastDateAndForecastType(forecastDate, forecastType);
+        progress.finish();
+
+        ForecastRunResult result = new ForecastRunResult();
+        result.setForecastType(forecastType);
+        result.setExecutionMode(parallel ? "PARALLEL" : "SEQUENTIAL");
+        result.setParallelism(parallel ? forecastComputePool.getParallelism() : 1);
+        result.setTotalProducts(progress.getTotalProducts());
+        result.setProcessedProducts(progress.getProcessedProducts());
+        result.setFailedProducts(progress.getFailedProducts());
+        result.setElapsedMs(progress.getElapsedMillis());
+        result.setProductsPerSecond(progress.getProductsPerSecond());
+        result.setForecasts(forecasts);
+        return result;
+    }
+
+    private List<DemandForecast> computeChunk(List<Product> chunk, Function<Product, DemandEstimator.Estimate> estimator,
+                                              LocalDate forecastDate, String forecastType,
+                                              Set<Long> alreadyForecast, List<DemandForecast> stockoutRisks,
+                                              ForecastProgress progress) {
+        List<DemandForecast> forecasts = new ArrayList<>(chunk.size());
+        for (Product product : chunk) {
             try {
-                DemandForecast forecast = generateForecast(product.getId(), forecastDate, forecastType);
+                DemandEstimator.Estimate estimate = estimator.apply(product);
+
+                DemandForecast forecast = new DemandForecast(product, forecastDate, estimate.predictedDemand(),
+                        estimate.confidence(), forecastType);
                 forecasts.add(forecast);
+
+                // Only alert on first generation, like the single-product path
+                if (!alreadyForecast.contains(product.getId()) && estimate.predictedDemand() > product.getCurrentStock()) {
+                    stockoutRisks.add(forecast);
+                }
             } catch (Exception e) {
+                progress.fail();
                 System.err.println("Error forecasting for product " + product.getName() + ": " + e.getMessage());
             }
         }
-        
         return forecasts;
     }
 
@@ -105,6 +287,13 @@ public class AIForecastServiceImpl implements AIForecastService {
             riskInfo.put("shortfall", forecast.getPredictedDemand() - product.getCurrentStock());
             riskInfo.put("forecastDate", forecast.getForecastDate());
             riskInfo.put("confidence", forecast.getConfidenceScore());
+            if (salesSeriesStore.isReady()) {
+                // Actual recent sell-through next to the forecast
+                double averageDailySales = salesSeriesStore.averageDailyQuantity(product.getId(), RECENT_SALES_DAYS);
+                riskInfo.put("averageDailySales", averageDailySales);
+                riskInfo.put("daysOfCover", averageDailySales > 0
+                        ? (int) Math.floor(product.getCurrentStock() / averageDailySales) : null);
+            }
             
             return riskInfo;
         }).collect(Collectors.toList());
@@ -112,95 +301,169 @@ public class AIForecastServiceImpl implements AIForecastService {
 
     @Override
     public Integer predictDemand(Long productId, int daysAhead) {
-        // Get historical sales data (last 30 days)
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(30);
-        
-        List<HistoricalSales> historicalData = historicalSalesRepository
-                .findByProductIdAndSaleDateBetween(productId, startDate, endDate);
-        
-        if (historicalData.isEmpty()) {
-            // No historical data - use default based on purchase count
-            Product product = productRepository.findById(productId).orElse(null);
-            if (product != null && product.getPurchaseCount() > 0) {
-                return (int) Math.ceil(product.getPurchaseCount() / 30.0 * daysAhead);
+        return predictDemand(productId, daysAhead, configuredMethod());
+    }
+
+    @Override
+    public Integer predictDemand(Long productId, int daysAhead, ForecastMethod forecastMethod) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null) {
+            return DemandEstimator.DEFAULT_DEMAND;
+        }
+        return estimate(product, LocalDate.now().plusDays(1), daysAhead, forecastMethod).predictedDemand();
+    }
+
+    @Override
+    public Map<Long, Integer> predictRestockDemand(List<RestockCandidate> candidates, int daysAhead) {
+        ForecastMethod forecastMethod = configuredMethod();
+        if (forecastMethod.isSeasonal() && salesSeriesStore.isReady()) {
+            Map<Long, Integer> predictions = new HashMap<>();
+            for (RestockCandidate candidate : candidates) {
+                predictions.put(candidate.getId(), estimateSeasonal(candidate.getId(), candidate.getPurchaseCount(),
+                        LocalDate.now().plusDays(1), daysAhead, forecastMethod).predictedDemand());
+            }
+            return predictions;
+        }
+        if (forecastStateUpdater.isReady()) {
+            // States of the candidates only, looked up by primary key
+            Map<Long, ForecastState> states = new HashMap<>();
+            for (ForecastState state : forecastStateRepository.findAllById(
+                    candidates.stream().map(RestockCandidate::getId).toList())) {
+                states.put(state.getProductId(), state);
+            }
+            Map<Long, Integer> predictions = new HashMap<>();
+            for (RestockCandidate candidate : candidates) {
+                predictions.put(candidate.getId(), estimateFromState(states.get(candidate.getId()),
+                        candidate.getPurchaseCount(), daysAhead).predictedDemand());
             }
-            return 5; // Default fallback
+            return predictions;
+        }
+        if (salesSeriesStore.isReady()) {
+            Map<Long, Integer> predictions = new HashMap<>();
+            for (RestockCandidate candidate : candidates) {
+                predictions.put(candidate.getId(), estimateFromSeries(candidate.getId(),
+                        candidate.getPurchaseCount(), daysAhead).predictedDemand());
+            }
+            return predictions;
         }
 
-        // Simple Moving Average (SMA) Algorithm
-        double totalSales = historicalData.stream()
-                .mapToInt(HistoricalSales::getQuantitySold)
-                .sum();
-        
-        double averageDailySales = totalSales / historicalData.size();
-        
-        // Apply trend adjustment (if sales are increasing or decreasing)
-        double trendFactor = calculateTrend(historicalData);
+        Map<Long, int[]> salesByProduct = loadSalesWindow(historicalSalesRepository::streamRestockCandidateSalesWindow);
+        Map<Long, Integer> predictions = new HashMap<>();
         
-        // Exponential Smoothing for better accuracy
-        double smoothedAverage = applyExponentialSmoothing(historicalData);
-        
-        // Combine both methods
-        double finalPrediction = (smoothedAverage * 0.7 + averageDailySales * 0.3) * (1 + trendFactor) * daysAhead;
+        for (RestockCandidate candidate : candidates) {
+            DemandEstimator.Estimate estimate = estimateFromWindow(salesByProduct.get(candidate.getId()),
+                    candidate.getPurchaseCount(), daysAhead);
+            predictions.put(candidate.getId(), estimate.predictedDemand());
+        }
         
-        return Math.max(1, (int) Math.ceil(finalPrediction));
+        return predictions;
     }
 
-    private Double calculateConfidence(Long productId) {
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(30);
-        
-        List<HistoricalSales> data = historicalSalesRepository
-                .findByProductIdAndSaleDateBetween(productId, startDate, endDate);
-        
-        if (data.isEmpty()) return 50.0;
-        if (data.size() < 7) return 60.0;
-        if (data.size() < 14) return 75.0;
-        
-        // Calculate variance
-        double mean = data.stream().mapToInt(HistoricalSales::getQuantitySold).average().orElse(0);
-        double variance = data.stream()
-                .mapToDouble(hs -> Math.pow(hs.getQuantitySold() - mean, 2))
-                .average().orElse(0);
-        
-        double stdDev = Math.sqrt(variance);
-        double cv = stdDev / mean; // Coefficient of variation
-        
-        // Lower variance = higher confidence
-        double confidence = Math.max(50, Math.min(95, 95 - (cv * 100)));
-        
-        return Math.round(confidence * 100.0) / 100.0;
+    // Prediction and confidence from the product's smoothing state, or until states are ready the same blend folded
+    // from its 30-day history; both agree exactly up to 30 days of history and closely after that
+    private DemandEstimator.Estimate estimate(Product product, LocalDate firstDay, int daysAhead,
+                                              ForecastMethod forecastMethod) {
+        if (forecastMethod.isSeasonal() && salesSeriesStore.isReady()) {
+            return estimateSeasonal(product.getId(), product.getPurchaseCount(), firstDay, daysAhead, forecastMethod);
+        }
+        if (forecastStateUpdater.isReady()) {
+            ForecastState state = forecastStateRepository.findById(product.getId()).orElse(null);
+            return estimateFromState(state, product.getPurchaseCount(), daysAhead);
+        }
+        if (salesSeriesStore.isReady()) {
+            return estimateFromSeries(product.getId(), product.getPurchaseCount(), daysAhead);
+        }
+
+        LocalDate startDate = LocalDate.now().minusDays(HISTORY_DAYS);
+        int[] series = new int[HISTORY_DAYS];
+        for (HistoricalSales sales : historicalSalesRepository
+                .findByProductIdAndSaleDateBetween(product.getId(), startDate, startDate.plusDays(HISTORY_DAYS - 1))) {
+            series[(int) ChronoUnit.DAYS.between(startDate, sales.getSaleDate())] += sales.getQuantitySold();
+        }
+        return estimateFromWindow(series, product.getPurchaseCount(), daysAhead);
     }
 
-    private double calculateTrend(List<HistoricalSales> data) {
-        if (data.size() < 2) return 0.0;
-        
-        // Compare recent week vs previous week
-        int midPoint = data.size() / 2;
-        
-        double recentAvg = data.subList(midPoint, data.size()).stream()
-                .mapToInt(HistoricalSales::getQuantitySold)
-                .average().orElse(0);
-        
-        double previousAvg = data.subList(0, midPoint).stream()
-                .mapToInt(HistoricalSales::getQuantitySold)
-                .average().orElse(1);
-        
-        // Return trend as percentage change
-        return (recentAvg - previousAvg) / previousAvg;
+    private static DemandEstimator.Estimate estimateFromState(ForecastState state, Integer purchaseCount, int daysAhead) {
+        if (state == null || state.getDayCount() == 0) {
+            // No historical data - use default based on purchase count
+            return DemandEstimator.fromPurchaseCount(purchaseCount, daysAhead);
+        }
+        return DemandEstimator.estimate(state, daysAhead);
     }
 
-    private double applyExponentialSmoothing(List<HistoricalSales> data) {
-        if (data.isEmpty()) return 0;
-        
-        double alpha = 0.3; // Smoothing factor (0.2-0.3 is common)
-        double smoothed = data.get(0).getQuantitySold();
-        
-        for (int i = 1; i < data.size(); i++) {
-            smoothed = alpha * data.get(i).getQuantitySold() + (1 - alpha) * smoothed;
+    // The last 30 closed days from the sales series store (today is still filling)
+    private DemandEstimator.Estimate estimateFromSeries(Long productId, Integer purchaseCount, int daysAhead) {
+        int days = Math.min(HISTORY_DAYS, salesSeriesStore.getDays() - 1);
+        int[] series = salesSeriesStore.dailyQuantities(productId, days + 1);
+        return estimateFromWindow(Arrays.copyOf(series, days), purchaseCount, daysAhead);
+    }
+
+    // Every window fallback: a dense series of closed days, oldest first, counted from the first sale in it
+    // (DemandEstimator skips the days before); products without a sale in the window fall back to purchase count
+    private static DemandEstimator.Estimate estimateFromWindow(int[] series, Integer purchaseCount, int daysAhead) {
+        if (series != null) {
+            for (int quantity : series) {
+                if (quantity > 0) {
+                    return DemandEstimator.estimate(series, series.length, daysAhead);
+                }
+            }
         }
-        
-        return smoothed;
+        return DemandEstimator.fromPurchaseCount(purchaseCount, daysAhead);
+    }
+
+    // Holt-Winters on the closed days of the store's series (today is still filling), starting at the first sale,
+    // over daysAhead days from firstDay so the weekday factors line up with the forecast date;
+    // products with less than two weeks of history use the 30-day blend instead
+    private DemandEstimator.Estimate estimateSeasonal(Long productId, Integer purchaseCount, LocalDate firstDay,
+                                                      int daysAhead, ForecastMethod forecastMethod) {
+        int days = Math.min(seasonalHistoryDays, salesSeriesStore.getDays() - 1);
+        int[] series = salesSeriesStore.dailyQuantities(productId, days + 1);
+        int firstSale = 0;
+        while (firstSale < days && series[firstSale] == 0) {
+            firstSale++;
+        }
+        // The fitted series ends yesterday, so its first horizon step is today
+        int skipDays = (int) Math.max(0, firstDay.toEpochDay() - LocalDate.now().toEpochDay());
+        DemandEstimator.Estimate estimate = HoltWinters.estimate(series, firstSale, days, skipDays, daysAhead,
+                forecastMethod.getSeasonality());
+        return estimate != null ? estimate : estimateFromSeries(productId, purchaseCount, daysAhead);
+    }
+
+    private ForecastMethod configuredMethod() {
+        return ForecastMethod.fromLabel(method);
+    }
+
+    // Group the streamed [productId, saleDate, quantitySold] rows into one dense series per product over the
+    // last 30 closed days (today is still filling), zero on days without a row
+    private Map<Long, int[]> loadSalesWindow(BiFunction<LocalDate, LocalDate, Stream<Object[]>> query) {
+        LocalDate startDate = LocalDate.now().minusDays(HISTORY_DAYS);
+        LocalDate endDate = startDate.plusDays(HISTORY_DAYS - 1);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        return readOnly.execute(status -> {
+            Map<Long, int[]> salesByProduct = new HashMap<>();
+            try (Stream<Object[]> rows = query.apply(startDate, endDate)) {
+                Long currentProduct = null;
+                int[] series = null;
+
+                for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                    Object[] row = it.next();
+                    Long productId = (Long) row[0];
+                    if (!productId.equals(currentProduct)) {
+                        currentProduct = productId;
+                        series = new int[HISTORY_DAYS];
+                        salesByProduct.put(productId, series);
+                    }
+                    series[(int) ChronoUnit.DAYS.between(startDate, (LocalDate) row[1])] += (Integer) row[2];
+                }
+            }
+            return salesByProduct;
+        });
+    }
+
+    private int daysAheadFor(String forecastType) {
+        return forecastType.equals("DAILY") ? 1 : 7;
     }
 }
\ No newline at end of file
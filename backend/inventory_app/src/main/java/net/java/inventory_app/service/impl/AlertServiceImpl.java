@@ -1,7 +1,10 @@
 package net.java.inventory_app.service.impl;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.Alert;
 import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.index.StockLevelIndex;
+import net.java.inventory_app.pagination.CursorPagination;
 import net.java.inventory_app.repository.AlertRepository;
 import net.java.inventory_app.repository.ProductRepository;
 import net.java.inventory_app.service.AlertService;
@@ -21,6 +24,12 @@ public class AlertServiceImpl implements AlertService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CursorPagination cursorPagination;
+
+    @Autowired
+    private StockLevelIndex stockLevelIndex;
+
     @Override
     public Alert createLowStockAlert(Product product) {
         String severity = calculateLowStockSeverity(product);
@@ -64,6 +73,12 @@ public class AlertServiceImpl implements AlertService {
         return alertRepository.findAllByOrderByCreatedAtDesc();
     }
 
+    @Override
+    public CursorPage<Alert> getAlertsPage(String cursor, Integer size) {
+        return cursorPagination.page(cursor, size, "createdAt", alertRepository::findAllByOrderByCreatedAtDescIdDesc,
+                Alert::getCreatedAt, Alert::getId);
+    }
+
     @Override
     public List<Alert> getUnreadAlerts() {
         return alertRepository.findByIsReadOrderByCreatedAtDesc(false);
@@ -94,6 +109,29 @@ public class AlertServiceImpl implements AlertService {
 
     @Override
     public void checkAndCreateAlerts() {
+        if (stockLevelIndex.isReady()) {
+            // Range lookup in the stock level index plus an expiry date query, no full product scan
+            List<Product> lowStock = productRepository.findAllById(stockLevelIndex.findBelowReorderPoint());
+            for (Product product : lowStock) {
+                try {
+                    if (product.getCurrentStock() <= product.getReorderPoint()) {
+                        createLowStockAlert(product);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error creating alert for product " + product.getName() + ": " + e.getMessage());
+                }
+            }
+            LocalDate today = LocalDate.now();
+            for (Product product : productRepository.findByExpiryDateBetween(today.plusDays(1), today.plusDays(30))) {
+                try {
+                    createExpiryAlert(product);
+                } catch (Exception e) {
+                    System.err.println("Error creating alert for product " + product.getName() + ": " + e.getMessage());
+                }
+            }
+            return;
+        }
+
         List<Product> products = productRepository.findAll();
         
         for (Product product : products) {
@@ -0,0 +1,282 @@
+package net.java.inventory_app.service.impl;
+
+import net.java.inventory_app.dto.BacktestReport;
+import net.java.inventory_app.entity.ForecastState;
+import net.java.inventory_app.forecast.DemandEstimator;
+import net.java.inventory_app.forecast.HoltWinters;
+import net.java.inventory_app.forecast.SalesHistoryArchive;
+import net.java.inventory_app.job.ProgressListener;
+import net.java.inventory_app.service.ForecastBacktestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rolling-origin backtest over the compressed sales history. For every product and origin each method only sees
+ * the days before the origin, predicts the next horizonDays, and is scored against what was actually sold.
+ * Methods are evaluated the way AIForecastServiceImpl runs them:
+ * BLEND - the incremental smoothing state (what predictDemand serves once states are loaded),
+ * BLEND_30_DAY - the same blend folded from only the 30 days before the origin (the fallback until then),
+ * HOLT_WINTERS_ADDITIVE / HOLT_WINTERS_MULTIPLICATIVE - fitted on the seasonal history, blend below two weeks.
+ * Products are split across the forecast fork-join pool; each task returns its partial sums, merged on join.
+ */
+@Service
+public class ForecastBacktestServiceImpl implements ForecastBacktestService {
+
+    private static final String[] METHODS = {"BLEND", "BLEND_30_DAY", "HOLT_WINTERS_ADDITIVE", "HOLT_WINTERS_MULTIPLICATIVE"};
+    private static final int BLEND = 0;
+    private static final int BLEND_30_DAY = 1;
+    private static final int HOLT_WINTERS_ADDITIVE = 2;
+    private static final int HOLT_WINTERS_MULTIPLICATIVE = 3;
+
+    private static final int WINDOW_DAYS = 30; // the closed days before the origin, as in the live window blend
+    private static final int PRODUCTS_PER_TASK = 32;
+
+    private SalesHistoryArchive salesHistoryArchive;
+    private ForkJoinPool forecastComputePool;
+    private volatile BacktestReport lastReport;
+
+    @Value("${inventory.forecast.seasonal-history-days:84}")
+    private int seasonalHistoryDays = 84;
+
+    @Autowired
+    public ForecastBacktestServiceImpl(SalesHistoryArchive salesHistoryArchive, ForkJoinPool forecastComputePool) {
+        this.salesHistoryArchive = salesHistoryArchive;
+        this.forecastComputePool = forecastComputePool;
+    }
+
+    @Override
+    public BacktestReport runBacktest(int horizonDays, int origins, int stepDays, ProgressListener<Object> listener) {
+        if (horizonDays < 1 || origins < 1 || stepDays < 1) {
+            throw new RuntimeException("horizonDays, origins and stepDays must all be at least 1");
+        }
+        if (!salesHistoryArchive.isReady()) {
+            throw new RuntimeException("Sales history archive is not open; rebuild it first");
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDate firstDay = salesHistoryArchive.getFirstDay();
+        LocalDate lastDay = salesHistoryArchive.getLastDay();
+        int dayCount = (int) (lastDay.toEpochDay() - firstDay.toEpochDay() + 1);
+
+        // Origin offsets into the archived series, oldest first; each needs at least one day before it
+        int lastOrigin = dayCount - horizonDays;
+        int originCount = Math.min(origins, lastOrigin < 1 ? 0 : (lastOrigin - 1) / stepDays + 1);
+        if (originCount == 0) {
+            throw new RuntimeException("Archive covers " + dayCount + " days, too short for a " + horizonDays + "-day horizon");
+        }
+        int[] originOffsets = new int[originCount];
+        for (int i = 0; i < originCount; i++) {
+            originOffsets[i] = lastOrigin - (originCount - 1 - i) * stepDays;
+        }
+
+        long[] productIds = salesHistoryArchive.productIds();
+        Backtest backtest = new Backtest(productIds, firstDay, lastDay, originOffsets, horizonDays, listener);
+        Totals totals = forecastComputePool.invoke(new ProductRange(backtest, 0, productIds.length));
+
+        List<BacktestReport.Accuracy> methods = new ArrayList<>(METHODS.length);
+        for (int m = 0; m < METHODS.length; m++) {
+            methods.add(totals.aggregate[m].toAccuracy(null, METHODS[m]));
+        }
+        BacktestReport report = new BacktestReport(firstDay.plusDays(originOffsets[0]),
+                firstDay.plusDays(lastOrigin), horizonDays, stepDays, originCount, totals.evaluated, totals.skipped,
+                forecastComputePool.getParallelism(), System.currentTimeMillis() - start, methods, totals.skus);
+        lastReport = report;
+        System.out.println("Forecast backtest: " + totals.evaluated + " products x " + originCount + " origins in "
+                + report.elapsedMillis() + " ms");
+        return report;
+    }
+
+    @Override
+    public BacktestReport getLastReport() {
+        return lastReport;
+    }
+
+    // Inputs shared by all tasks of one run
+    private final class Backtest {
+        private final long[] productIds;
+        private final LocalDate firstDay;
+        private final LocalDate lastDay;
+        private final int[] originOffsets;
+        private final int horizonDays;
+        private final ProgressListener<Object> listener;
+        private final AtomicInteger processed = new AtomicInteger();
+
+        private Backtest(long[] productIds, LocalDate firstDay, LocalDate lastDay, int[] originOffsets,
+                         int horizonDays, ProgressListener<Object> listener) {
+            this.productIds = productIds;
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+            this.originOffsets = originOffsets;
+            this.horizonDays = horizonDays;
+            this.listener = listener;
+        }
+
+        private void evaluate(long productId, Totals totals) {
+            int[] series = salesHistoryArchive.dailyQuantities(productId, firstDay, lastDay);
+            int firstSale = 0;
+            while (firstSale < series.length && series[firstSale] == 0) {
+                firstSale++;
+            }
+            if (firstSale >= originOffsets[originOffsets.length - 1]) {
+                totals.skipped++; // no sale before the last origin, nothing to score
+                return;
+            }
+
+            Errors[] errors = new Errors[METHODS.length];
+            for (int m = 0; m < errors.length; m++) {
+                errors[m] = new Errors();
+            }
+            int[] window = new int[WINDOW_DAYS];
+            ForecastState state = new ForecastState();
+            int folded = firstSale;
+
+            for (int origin : originOffsets) {
+                if (origin <= firstSale) {
+                    continue; // the live service would use the purchase-count default here
+                }
+                long actual = 0;
+                for (int day = origin; day < origin + horizonDays; day++) {
+                    actual += series[day];
+                }
+
+                // Smoothing state folded through the day before the origin, one day at a time as the updater does
+                for (; folded < origin; folded++) {
+                    DemandEstimator.fold(state, series[folded]);
+                }
+                errors[BLEND].add(DemandEstimator.estimate(state, horizonDays).predictedDemand(), actual);
+
+                int windowStart = Math.max(0, origin - WINDOW_DAYS);
+                int windowLength = origin - windowStart;
+                System.arraycopy(series, windowStart, window, 0, windowLength);
+                int blend = DemandEstimator.estimate(window, windowLength, horizonDays).predictedDemand();
+                errors[BLEND_30_DAY].add(blend, actual);
+
+                // The origin is the first forecast day, right after the fitted days
+                int seasonalStart = Math.max(firstSale, origin - seasonalHistoryDays);
+                DemandEstimator.Estimate additive = HoltWinters.estimate(series, seasonalStart, origin, 0, horizonDays,
+                        HoltWinters.Seasonality.ADDITIVE);
+                errors[HOLT_WINTERS_ADDITIVE].add(additive != null ? additive.predictedDemand() : blend, actual);
+                DemandEstimator.Estimate multiplicative = HoltWinters.estimate(series, seasonalStart, origin, 0, horizonDays,
+                        HoltWinters.Seasonality.MULTIPLICATIVE);
+                errors[HOLT_WINTERS_MULTIPLICATIVE].add(multiplicative != null ? multiplicative.predictedDemand() : blend,
+                        actual);
+            }
+
+            totals.evaluated++;
+            for (int m = 0; m < errors.length; m++) {
+                totals.skus.add(errors[m].toAccuracy(productId, METHODS[m]));
+                totals.aggregate[m].merge(errors[m]);
+            }
+        }
+    }
+
+    // Splits the product range in halves down to PRODUCTS_PER_TASK products and merges the halves' totals
+    private static final class ProductRange extends RecursiveTask<Totals> {
+        private final Backtest backtest;
+        private final int from;
+        private final int to;
+
+        private ProductRange(Backtest backtest, int from, int to) {
+            this.backtest = backtest;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= PRODUCTS_PER_TASK) {
+                Totals totals = new Totals();
+                for (int i = from; i < to; i++) {
+                    backtest.evaluate(backtest.productIds[i], totals);
+                }
+                backtest.listener.onProgress(backtest.processed.addAndGet(to - from), backtest.productIds.length);
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            ProductRange left = new ProductRange(backtest, from, mid);
+            left.fork();
+            Totals right = new ProductRange(backtest, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // Partial result of a task: per-method sums over its products plus their per-product rows
+    private static final class Totals {
+        private final Errors[] aggregate = new Errors[METHODS.length];
+        private final List<BacktestReport.Accuracy> skus = new ArrayList<>();
+        private int evaluated;
+        private int skipped;
+
+        private Totals() {
+            for (int m = 0; m < aggregate.length; m++) {
+                aggregate[m] = new Errors();
+            }
+        }
+
+        private Totals merge(Totals other) {
+            for (int m = 0; m < aggregate.length; m++) {
+                aggregate[m].merge(other.aggregate[m]);
+            }
+            skus.addAll(other.skus);
+            evaluated += other.evaluated;
+            skipped += other.skipped;
+            return this;
+        }
+    }
+
+    // Running error sums of one method, for one product or merged over many
+    private static final class Errors {
+        private long forecasts;
+        private long percentageForecasts; // origins with actual demand, the only ones MAPE is defined for
+        private double absolutePercentageSum;
+        private double symmetricSum;
+        private double errorSum;
+        private double absoluteErrorSum;
+        private double actualSum;
+
+        private void add(long predicted, long actual) {
+            long error = predicted - actual;
+            forecasts++;
+            errorSum += error;
+            absoluteErrorSum += Math.abs(error);
+            actualSum += actual;
+            if (actual > 0) {
+                percentageForecasts++;
+                absolutePercentageSum += (double) Math.abs(error) / actual;
+            }
+            if (predicted + actual > 0) {
+                symmetricSum += 2.0 * Math.abs(error) / (predicted + actual);
+            }
+        }
+
+        private void merge(Errors other) {
+            forecasts += other.forecasts;
+            percentageForecasts += other.percentageForecasts;
+            absolutePercentageSum += other.absolutePercentageSum;
+            symmetricSum += other.symmetricSum;
+            errorSum += other.errorSum;
+            absoluteErrorSum += other.absoluteErrorSum;
+            actualSum += other.actualSum;
+        }
+
+        private BacktestReport.Accuracy toAccuracy(Long productId, String method) {
+            return new BacktestReport.Accuracy(productId, method, forecasts,
+                    round(percentageForecasts > 0 ? 100 * absolutePercentageSum / percentageForecasts : 0),
+                    round(forecasts > 0 ? 100 * symmetricSum / forecasts : 0),
+                    round(actualSum > 0 ? 100 * errorSum / actualSum : 0),
+                    round(forecasts > 0 ? absoluteErrorSum / forecasts : 0));
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package net.java.inventory_app.service.impl;
+
+import net.java.inventory_app.forecast.ForecastProgress;
+import net.java.inventory_app.job.BackgroundJob;
+import net.java.inventory_app.service.AIForecastService;
+import net.java.inventory_app.service.ForecastBacktestService;
+import net.java.inventory_app.service.JobService;
+import net.java.inventory_app.service.RestockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+@Service
+public class JobServiceImpl implements JobService {
+
+    @Autowired
+    private AIForecastService forecastService;
+    
+    @Autowired
+    private RestockService restockService;
+    
+    @Autowired
+    private ForecastBacktestService backtestService;
+    
+    @Autowired
+    private ExecutorService jobExecutor;
+    
+    @Value("${inventory.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    // All retained jobs by id, and the queued/running job for each coalescing key
+    private final Map<String, BackgroundJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, BackgroundJob> activeJobs = new ConcurrentHashMap<>();
+
+    @Override
+    public BackgroundJob submitForecastJob(String forecastType) {
+        return submit("FORECAST_ALL", "FORECAST_ALL:" + forecastType,
+                job -> forecastService.generateAllForecasts(forecastType, new ForecastProgress(job)));
+    }
+
+    @Override
+    public BackgroundJob submitRestockJob() {
+        return submit("RESTOCK", "RESTOCK", job -> restockService.getRestockRecommendations(job));
+    }
+
+    @Override
+    public BackgroundJob submitBacktestJob(int horizonDays, int origins, int stepDays) {
+        // Only identical backtests coalesce; a different configuration gets its own job
+        return submit("BACKTEST", "BACKTEST:" + horizonDays + ":" + origins + ":" + stepDays,
+                job -> backtestService.runBacktest(horizonDays, origins, stepDays, job));
+    }
+
+    @Override
+    public BackgroundJob getJob(String id) {
+        purgeExpired();
+        BackgroundJob job = jobs.get(id);
+        if (job == null) {
+            throw new RuntimeException("Job not found with id: " + id);
+        }
+        return job;
+    }
+
+    @Override
+    public List<BackgroundJob> getAllJobs() {
+        purgeExpired();
+        List<BackgroundJob> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparing(BackgroundJob::getSubmittedAt).reversed());
+        return all;
+    }
+
+    // Returns the job already queued/running for the key, or queues a new one
+    private BackgroundJob submit(String jobType, String jobKey, Function<BackgroundJob, Object> work) {
+        purgeExpired();
+        BackgroundJob[] created = new BackgroundJob[1];
+        BackgroundJob job = activeJobs.computeIfAbsent(jobKey, key -> {
+            created[0] = new BackgroundJob(jobType, key);
+            // Pollable by id before any coalesced submitter can see it
+            jobs.put(created[0].getId(), created[0]);
+            return created[0];
+        });
+
+        if (created[0] != null) {
+            jobExecutor.execute(() -> run(job, work));
+        }
+        return job;
+    }
+
+    private void run(BackgroundJob job, Function<BackgroundJob, Object> work) {
+        job.markRunning();
+        try {
+            job.complete(work.apply(job));
+        } catch (Throwable e) {
+            // Errors too: a job left RUNNING would be polled forever and never purged
+            System.err.println("Job " + job.getId() + " (" + job.getJobType() + ") failed: " + e);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.toString());
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            activeJobs.remove(job.getJobKey(), job);
+        }
+    }
+
+    private void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
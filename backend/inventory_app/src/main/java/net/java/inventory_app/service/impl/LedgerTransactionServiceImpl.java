@@ -0,0 +1,123 @@
+package net.java.inventory_app.service.impl;
+
+import net.java.inventory_app.dto.CursorPage;
+import net.java.inventory_app.dto.StockMovement;
+import net.java.inventory_app.dto.StockMovementResult;
+import net.java.inventory_app.dto.TransactionExportRow;
+import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.entity.Transaction;
+import net.java.inventory_app.index.StockLevelIndex;
+import net.java.inventory_app.ledger.StockLedger;
+import net.java.inventory_app.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * TransactionService used when inventory.ledger.enabled=true. Stock-in / stock-out requests, single or bulk, go to
+ * the in-memory StockLedger and are persisted by its periodic flush; everything else goes to TransactionServiceImpl.
+ * The returned Transaction is not persisted yet (no id): its movement is part of the next aggregated journal row.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "true")
+public class LedgerTransactionServiceImpl implements TransactionService {
+
+    private TransactionServiceImpl delegate;
+    private StockLedger stockLedger;
+    private StockLevelIndex stockLevelIndex;
+
+    @Autowired
+    public LedgerTransactionServiceImpl(TransactionServiceImpl delegate, StockLedger stockLedger,
+                                        StockLevelIndex stockLevelIndex) {
+        this.delegate = delegate;
+        this.stockLedger = stockLedger;
+        this.stockLevelIndex = stockLevelIndex;
+    }
+
+    @Override
+    public Transaction recordStockIn(Long productId, Integer quantity, String handler, String notes) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        Product product = stockLedger.stockIn(productId, quantity);
+        // Stock levels in memory run ahead of the table until the next flush
+        stockLevelIndex.updateFromLedger(productId, product.getReorderPoint() != null ? product.getReorderPoint() : 0);
+        return new Transaction(product, "STOCK_IN", quantity, handler, notes);
+    }
+
+    @Override
+    public Transaction recordStockOut(Long productId, Integer quantity, String handler, String notes) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        Product product = stockLedger.stockOut(productId, quantity);
+        // Stock levels in memory run ahead of the table until the next flush
+        stockLevelIndex.updateFromLedger(productId, product.getReorderPoint() != null ? product.getReorderPoint() : 0);
+        return new Transaction(product, "STOCK_OUT", quantity, handler, notes);
+    }
+
+    @Override
+    public List<StockMovementResult> recordBulk(List<StockMovement> movements) {
+        // Line by line through the ledger: writing them straight to MySQL would take stock the ledger already gave out
+        List<StockMovementResult> results = new ArrayList<>(movements.size());
+        for (int i = 0; i < movements.size(); i++) {
+            StockMovement movement = movements.get(i);
+            StockMovementResult result = new StockMovementResult(i, movement);
+            results.add(result);
+            String error = delegate.validate(movement);
+            if (error != null) {
+                result.setMessage(error);
+                continue;
+            }
+            try {
+                boolean stockIn = "STOCK_IN".equals(movement.getTransactionType());
+                Transaction transaction = stockIn
+                        ? recordStockIn(movement.getProductId(), movement.getQuantity(), movement.getHandler(), movement.getNotes())
+                        : recordStockOut(movement.getProductId(), movement.getQuantity(), movement.getHandler(), movement.getNotes());
+                result.setSuccess(true);
+                result.setMessage(stockIn ? "Stock-in recorded" : "Stock-out recorded");
+                result.setCurrentStock(transaction.getProduct().getCurrentStock());
+            } catch (RuntimeException e) {
+                result.setMessage(e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<Transaction> getAllTransactions() {
+        return delegate.getAllTransactions();
+    }
+
+    @Override
+    public CursorPage<Transaction> getTransactionsPage(String cursor, Integer size) {
+        return delegate.getTransactionsPage(cursor, size);
+    }
+
+    @Override
+    public long exportTransactions(LocalDateTime from, LocalDateTime to, Long productId, Consumer<TransactionExportRow> consumer) {
+        return delegate.exportTransactions(from, to, productId, consumer);
+    }
+
+    @Override
+    public List<Transaction> getTransactionsByProduct(Long productId) {
+        return delegate.getTransactionsByProduct(productId);
+    }
+
+    @Override
+    public Transaction getTransactionById(Long id) {
+        return delegate.getTransactionById(id);
+    }
+
+    @Override
+    public Integer getCurrentStock(Long productId) {
+        return stockLedger.getCurrentStock(productId);
+    }
+}
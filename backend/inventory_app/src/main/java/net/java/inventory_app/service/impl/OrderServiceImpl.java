@@ -1,22 +1,37 @@
 package net.java.inventory_app.service.impl;
 
+import jakarta.persistence.OptimisticLockException;
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.Order;
 import net.java.inventory_app.entity.OrderItem;
 import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.entity.Transaction;
+import net.java.inventory_app.event.OrderPlacedEvent;
+import net.java.inventory_app.event.ProductChangedEvent;
 import net.java.inventory_app.entity.User;
+import net.java.inventory_app.exception.InsufficientStockException;
+import net.java.inventory_app.ledger.StockLedger;
+import net.java.inventory_app.pagination.CursorPagination;
 import net.java.inventory_app.repository.OrderRepository;
 import net.java.inventory_app.repository.OrderItemRepository;
 import net.java.inventory_app.repository.ProductRepository;
+import net.java.inventory_app.repository.TransactionRepository;
 import net.java.inventory_app.repository.UserRepository;
 import net.java.inventory_app.service.OrderService;
-import net.java.inventory_app.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -25,23 +40,44 @@ public class OrderServiceImpl implements OrderService {
     private OrderItemRepository orderItemRepository;
     private ProductRepository productRepository;
     private UserRepository userRepository;
-    private TransactionService transactionService;
+    private TransactionRepository transactionRepository;
+
+    private TransactionTemplate transactionTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private CursorPagination cursorPagination;
+    private StockLedger stockLedger;
+
+    @Value("${inventory.transactions.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${inventory.order.locking-mode:PESSIMISTIC}")
+    private String lockingMode = "PESSIMISTIC"; // PESSIMISTIC or OPTIMISTIC
+
+    @Value("${inventory.order.max-retries:3}")
+    private int maxRetries = 3;
 
     @Autowired
     public OrderServiceImpl(OrderRepository orderRepository, 
                            OrderItemRepository orderItemRepository,
                            ProductRepository productRepository,
                            UserRepository userRepository,
-                           TransactionService transactionService) {
+                           TransactionRepository transactionRepository,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           CursorPagination cursorPagination,
+                           StockLedger stockLedger) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
-        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cursorPagination = cursorPagination;
+        this.stockLedger = stockLedger;
     }
 
     @Override
-    @Transactional
     public Order placeOrder(Long userId, List<Map<String, Object>> cartItems) {
         // Find user
         User user = userRepository.findById(userId)
@@ -52,51 +88,124 @@ public class OrderServiceImpl implements OrderService {
             throw new RuntimeException("Cart is empty");
         }
 
-        // Calculate total and validate stock
-        double totalAmount = 0.0;
+        // Parse cart lines and total the quantity per product (ascending id = lock order)
+        List<Long> lineProductIds = new ArrayList<>(cartItems.size());
+        List<Integer> lineQuantities = new ArrayList<>(cartItems.size());
+        Map<Long, Integer> requested = new TreeMap<>();
         for (Map<String, Object> item : cartItems) {
             Long productId = Long.valueOf(item.get("productId").toString());
             Integer quantity = Integer.valueOf(item.get("quantity").toString());
+            lineProductIds.add(productId);
+            lineQuantities.add(quantity);
+            requested.merge(productId, quantity, Integer::sum);
+        }
 
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+        if (!stockLedger.isEnabled()) {
+            return writeOrder(user, lineProductIds, lineQuantities, requested);
+        }
 
-            // Check stock availability
-            if (product.getCurrentStock() < quantity) {
-                throw new RuntimeException("Insufficient stock for " + product.getName() + 
-                        ". Available: " + product.getCurrentStock() + ", Requested: " + quantity);
+        // With the ledger on, its in-memory counters are the stock of record: take the quantities there first so
+        // ledger stock-outs and orders cannot both sell the same units, and only then write the order to MySQL
+        stockLedger.reserve(requested);
+        Order order;
+        try {
+            order = writeOrder(user, lineProductIds, lineQuantities, requested);
+        } catch (RuntimeException e) {
+            stockLedger.release(requested);
+            throw e;
+        }
+        stockLedger.settle(requested);
+        return order;
+    }
+
+    private Order writeOrder(User user, List<Long> lineProductIds, List<Integer> lineQuantities,
+                             Map<Long, Integer> requested) {
+        if (!"OPTIMISTIC".equalsIgnoreCase(lockingMode)) {
+            return transactionTemplate.execute(status ->
+                    createOrder(user, lineProductIds, lineQuantities, requested, true));
+        }
+
+        // Optimistic: no row locks, retry the whole order if a product version changed underneath
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status ->
+                        createOrder(user, lineProductIds, lineQuantities, requested, false));
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxRetries) {
+                    throw new RuntimeException("Order could not be placed because stock changed concurrently. Please retry.");
+                }
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(5L * attempt, 20L * attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Order placement interrupted");
+                }
             }
+        }
+    }
 
-            totalAmount += product.getPrice() * quantity;
+    private Order createOrder(User user, List<Long> lineProductIds, List<Integer> lineQuantities,
+                              Map<Long, Integer> requested, boolean lockRows) {
+        // Load every cart product in one query; pessimistic mode locks the rows in ascending id order
+        List<Product> loaded = lockRows
+                ? productRepository.findAllByIdForUpdate(requested.keySet())
+                : productRepository.findAllById(requested.keySet());
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : loaded) {
+            products.put(product.getId(), product);
         }
 
-        // Create order
-        Order order = new Order(user, totalAmount);
-        order = orderRepository.save(order);
+        // Calculate total and validate stock, collecting every shortage
+        double totalAmount = 0.0;
+        List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                throw new RuntimeException("Product not found with id: " + entry.getKey());
+            }
 
-        // Process each item
-        for (Map<String, Object> item : cartItems) {
-            Long productId = Long.valueOf(item.get("productId").toString());
-            Integer quantity = Integer.valueOf(item.get("quantity").toString());
+            // Check stock availability; with the ledger on it was reserved there, and the row may lag behind
+            // ledger stock-ins that are not flushed yet
+            if (!stockLedger.isEnabled() && product.getCurrentStock() < entry.getValue()) {
+                shortages.add(new InsufficientStockException.Shortage(
+                        product.getId(), product.getName(), product.getCurrentStock(), entry.getValue()));
+            }
 
-            Product product = productRepository.findById(productId).get();
+            totalAmount += product.getPrice() * entry.getValue();
+        }
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException(shortages);
+        }
 
-            // Create order item
-            OrderItem orderItem = new OrderItem(order, product, quantity, product.getPrice());
-            orderItemRepository.save(orderItem);
+        // Create order
+        Order order = new Order(user, totalAmount);
+        order = orderRepository.save(order);
 
-            // Record stock-out transaction
-            transactionService.recordStockOut(
-                productId, 
-                quantity, 
-                "System - User Purchase by " + user.getFullName(),
-                "Order #" + order.getId()
-            );
+        // One stock decrement and purchase count increment per product, flushed as a single UPDATE each
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Product product = products.get(entry.getKey());
+            product.setCurrentStock(product.getCurrentStock() - entry.getValue());
+            product.setPurchaseCount(product.getPurchaseCount() + entry.getValue());
+        }
+        if (!lockRows) {
+            // Surface version conflicts before doing the inserts
+            productRepository.flush();
+        }
 
-            // Update purchase count
-            product.setPurchaseCount(product.getPurchaseCount() + quantity);
-            productRepository.save(product);
+        // Order items and stock-out transactions, one per cart line, inserted in batches
+        String handler = Transaction.ORDER_HANDLER_PREFIX + user.getFullName();
+        List<OrderItem> orderItems = new ArrayList<>(lineProductIds.size());
+        List<Transaction> transactions = new ArrayList<>(lineProductIds.size());
+        for (int i = 0; i < lineProductIds.size(); i++) {
+            Product product = products.get(lineProductIds.get(i));
+            Integer quantity = lineQuantities.get(i);
+            orderItems.add(new OrderItem(order, product, quantity, product.getPrice()));
+            transactions.add(new Transaction(product, "STOCK_OUT", quantity, handler, "Order #" + order.getId()));
         }
+        orderItemRepository.batchInsert(orderItems, batchSize);
+        transactionRepository.batchInsert(transactions, batchSize);
+        eventPublisher.publishEvent(new ProductChangedEvent(new ArrayList<>(requested.keySet())));
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), user.getId(), order.getOrderDate(), Map.copyOf(requested)));
 
         return order;
     }
@@ -106,6 +215,12 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findAllByOrderByOrderDateDesc();
     }
 
+    @Override
+    public CursorPage<Order> getOrdersPage(String cursor, Integer size) {
+        return cursorPagination.page(cursor, size, "orderDate", orderRepository::findAllByOrderByOrderDateDescIdDesc,
+                Order::getOrderDate, Order::getId);
+    }
+
     @Override
     public List<Order> getOrdersByUser(Long userId) {
         return orderRepository.findByUserId(userId);
@@ -0,0 +1,370 @@
+package net.java.inventory_app.service.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import net.java.inventory_app.dto.ProductImportResult;
+import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.event.CatalogImportedEvent;
+import net.java.inventory_app.repository.ProductRepository;
+import net.java.inventory_app.service.ProductImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bulk product import. The file is read row by row and valid rows are written in JDBC batches of
+ * inventory.import.batch-size, each batch in its own transaction, so memory stays flat however long the file is.
+ * A row that fails to parse, validate or insert is reported with its line number and the import carries on.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private ProductRepository productRepository;
+    private Validator validator;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate transactionTemplate;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${inventory.import.max-errors:1000}")
+    private int maxErrors = 1000;
+
+    @Autowired
+    public ProductImportServiceImpl(ProductRepository productRepository,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public ProductImportResult importProducts(InputStream input, String format) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format) || "json".equalsIgnoreCase(format);
+        if (!ndjson && !"csv".equalsIgnoreCase(format)) {
+            throw new RuntimeException("Unsupported import format: " + format + " (use csv or ndjson)");
+        }
+
+        long start = System.currentTimeMillis();
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024)) {
+            if (ndjson) {
+                readNdjson(reader, run);
+            } else {
+                readCsv(reader, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Import stream failed after " + run.rows + " rows", e);
+        } finally {
+            // Whatever was read before a broken stream is still written
+            run.flush(run.inserts, false);
+            run.flush(run.upserts, true);
+            if (run.inserted + run.upserted > 0) {
+                eventPublisher.publishEvent(new CatalogImportedEvent(run.inserted, run.upserted));
+            }
+        }
+
+        System.out.println("Product import: " + run.rows + " rows, " + run.inserted + " inserted, " + run.upserted
+                + " upserted, " + run.failed + " failed in " + (System.currentTimeMillis() - start) + " ms");
+        return new ProductImportResult(run.rows, run.inserted, run.upserted, run.failed, run.errors,
+                run.failed > run.errors.size(), System.currentTimeMillis() - start);
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        long[] line = {0};
+        List<String> header = readCsvRecord(reader, line);
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalize(header.get(i)), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new RuntimeException("CSV header must contain at least name and price columns");
+        }
+
+        List<String> record;
+        while (true) {
+            long firstLine = line[0] + 1;
+            record = readCsvRecord(reader, line);
+            if (record == null) {
+                break;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            List<String> values = record;
+            run.row(firstLine, key -> {
+                Integer index = columns.get(key);
+                return index != null && index < values.size() ? values.get(index) : null;
+            });
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            Map<String, Object> object;
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> parsed = objectMapper.readValue(text, Map.class);
+                object = parsed;
+            } catch (JacksonException e) {
+                run.rows++;
+                run.error(line, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            Map<String, Object> fields = new HashMap<>();
+            for (Map.Entry<String, Object> entry : object.entrySet()) {
+                fields.put(normalize(entry.getKey()), entry.getValue());
+            }
+            run.row(line, key -> {
+                Object value = fields.get(key);
+                return value != null ? value.toString() : null;
+            });
+        }
+    }
+
+    // Column names are matched case-insensitively, with or without underscores (image_url = imageUrl)
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    // Absent or empty optional columns stay null: new rows get the entity defaults, existing rows keep their values
+    private static Product toProduct(Function<String, String> field) {
+        Product product = new Product();
+        product.setId(parseLong(field, "id"));
+        product.setName(trimToNull(field.apply("name")));
+        product.setPrice(parseDouble(field, "price"));
+        product.setImageUrl(trimToNull(field.apply("imageurl")));
+        Integer stock = parseInt(field, "currentstock");
+        product.setCurrentStock(stock != null ? stock : 0);
+        String expiry = trimToNull(field.apply("expirydate"));
+        if (expiry != null) {
+            try {
+                product.setExpiryDate(LocalDate.parse(expiry));
+            } catch (DateTimeParseException e) {
+                throw new RuntimeException("Invalid expiryDate: " + expiry + " (expected yyyy-MM-dd)");
+            }
+        }
+        product.setReorderPoint(parseInt(field, "reorderpoint"));
+        product.setReorderQuantity(parseInt(field, "reorderquantity"));
+        product.setLeadTimeDays(parseInt(field, "leadtimedays"));
+        return product;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static Long parseLong(Function<String, String> field, String key) {
+        String value = trimToNull(field.apply(key));
+        try {
+            return value != null ? Long.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid " + key + ": " + value);
+        }
+    }
+
+    private static Integer parseInt(Function<String, String> field, String key) {
+        String value = trimToNull(field.apply(key));
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid " + key + ": " + value);
+        }
+    }
+
+    private static Double parseDouble(Function<String, String> field, String key) {
+        String value = trimToNull(field.apply(key));
+        try {
+            return value != null ? Double.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid " + key + ": " + value);
+        }
+    }
+
+    // One CSV record (RFC 4180 quoting, quoted fields may span lines); null at end of input
+    private static List<String> readCsvRecord(BufferedReader reader, long[] line) throws IOException {
+        String text = reader.readLine();
+        if (text == null) {
+            return null;
+        }
+        line[0]++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // Line break inside a quoted field
+                String next = reader.readLine();
+                if (next == null) {
+                    break;
+                }
+                line[0]++;
+                field.append('\n');
+                text = next;
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Counters, the current batches and the first errors of one import
+    private final class ImportRun {
+        private final List<Product> inserts = new ArrayList<>();
+        private final List<Long> insertLines = new ArrayList<>();
+        private final List<Product> upserts = new ArrayList<>();
+        private final List<Long> upsertLines = new ArrayList<>();
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long inserted;
+        private long upserted;
+        private long failed;
+
+        private void row(long line, Function<String, String> field) {
+            rows++;
+            Product product;
+            try {
+                product = toProduct(field);
+            } catch (RuntimeException e) {
+                error(line, e.getMessage());
+                return;
+            }
+
+            Set<ConstraintViolation<Product>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                StringBuilder message = new StringBuilder();
+                for (ConstraintViolation<Product> violation : violations) {
+                    if (!message.isEmpty()) {
+                        message.append("; ");
+                    }
+                    message.append(violation.getMessage());
+                }
+                error(line, message.toString());
+                return;
+            }
+
+            boolean upsert = product.getId() != null;
+            List<Product> batch = upsert ? upserts : inserts;
+            batch.add(product);
+            (upsert ? upsertLines : insertLines).add(line);
+            if (batch.size() >= batchSize) {
+                flush(batch, upsert);
+            }
+        }
+
+        private void error(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportResult.RowError(line, message));
+            }
+        }
+
+        private void flush(List<Product> batch, boolean upsert) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Long> lines = upsert ? upsertLines : insertLines;
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch, upsert));
+                count(batch.size(), upsert);
+            } catch (DataAccessException e) {
+                // Retry the rows one by one to find the ones the database rejects
+                for (int i = 0; i < batch.size(); i++) {
+                    List<Product> single = List.of(batch.get(i));
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> write(single, upsert));
+                        count(1, upsert);
+                    } catch (DataAccessException rowError) {
+                        Throwable cause = NestedExceptionUtils.getMostSpecificCause(rowError);
+                        error(lines.get(i), cause.getMessage());
+                    }
+                }
+            }
+            batch.clear();
+            lines.clear();
+        }
+
+        private void write(List<Product> batch, boolean upsert) {
+            if (upsert) {
+                productRepository.batchUpsertProducts(batch);
+            } else {
+                productRepository.batchInsertProducts(batch);
+            }
+        }
+
+        private void count(long written, boolean upsert) {
+            if (upsert) {
+                upserted += written;
+            } else {
+                inserted += written;
+            }
+        }
+    }
+}
@@ -1,27 +1,87 @@
 package net.java.inventory_app.service.impl;
 
+import net.java.inventory_app.cache.ProductCache;
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.Product;
+import net.java.inventory_app.event.CatalogImportedEvent;
+import net.java.inventory_app.event.ProductChangedEvent;
+import net.java.inventory_app.index.StockLevelIndex;
+import net.java.inventory_app.pagination.CursorPagination;
+import net.java.inventory_app.ranking.TopSellers;
+import net.java.inventory_app.ranking.TrendingProducts;
 import net.java.inventory_app.repository.ProductRepository;
+import net.java.inventory_app.search.ProductSearchIndex;
 import net.java.inventory_app.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private ProductRepository productRepository;
+    private ProductCache productCache;
+    private ApplicationEventPublisher eventPublisher;
+    private CursorPagination cursorPagination;
+    private ProductSearchIndex searchIndex;
+    private TopSellers topSellers;
+    private TrendingProducts trendingProducts;
+    private StockLevelIndex stockLevelIndex;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductCache productCache,
+                              ApplicationEventPublisher eventPublisher, CursorPagination cursorPagination,
+                              ProductSearchIndex searchIndex, TopSellers topSellers,
+                              TrendingProducts trendingProducts, StockLevelIndex stockLevelIndex) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+        this.cursorPagination = cursorPagination;
+        this.searchIndex = searchIndex;
+        this.topSellers = topSellers;
+        this.trendingProducts = trendingProducts;
+        this.stockLevelIndex = stockLevelIndex;
+    }
+
+    // Load every product name into the search index once the application is up, and again after a bulk import
+    @EventListener({ApplicationReadyEvent.class, CatalogImportedEvent.class})
+    public void buildSearchIndex() {
+        long start = System.currentTimeMillis();
+        searchIndex.rebuild(productRepository.findSearchEntries());
+        System.out.println("Product search index built: " + searchIndex.size() + " products in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Load every purchase count into the top sellers ranking once the application is up, and after a bulk import
+    @EventListener({ApplicationReadyEvent.class, CatalogImportedEvent.class})
+    public void buildTopSellers() {
+        try {
+            topSellers.rebuild(productRepository.findPurchaseCounts());
+        } catch (RuntimeException e) {
+            System.err.println("Top sellers ranking not built, falling back to queries: " + e.getMessage());
+        }
     }
 
     @Override
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        searchIndex.put(saved.getId(), saved.getName(), saved.getPurchaseCount());
+        topSellers.add(saved.getId(), saved.getPurchaseCount() != null ? saved.getPurchaseCount() : 0);
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved.getId()));
+        return saved;
+    }
+
+    @Override
+    public List<ProductSearchIndex.Hit> searchProducts(String query, int limit) {
+        return searchIndex.search(query, limit);
     }
 
     @Override
@@ -29,21 +89,34 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findAll();
     }
 
+    @Override
+    public CursorPage<Product> getProductsPage(String cursor, Integer size) {
+        return cursorPagination.page(cursor, size, productRepository::findAllByOrderByIdAsc, Product::getId);
+    }
+
     @Override
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        Product product = productCache.get(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            throw new RuntimeException("Product not found with id: " + id);
+        }
+        return product;
     }
 
     @Override
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        // Load from the database, never modify the shared cached instance
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         
         product.setName(productDetails.getName());
         product.setPrice(productDetails.getPrice());
         product.setImageUrl(productDetails.getImageUrl());
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        searchIndex.put(saved.getId(), saved.getName(), saved.getPurchaseCount());
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
+        return saved;
     }
 
     @Override
@@ -52,18 +125,41 @@ public class ProductServiceImpl implements ProductService {
             throw new RuntimeException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        searchIndex.remove(id);
+        topSellers.remove(id);
+        trendingProducts.remove(id);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
     }
 
     @Override
     public List<Product> getMostBoughtProducts() {
+        return getMostBoughtProducts(10);
+    }
+
+    @Override
+    public List<Product> getMostBoughtProducts(int limit) {
+        if (topSellers.isReady()) {
+            // Answered from the live ranking; products come from the cache
+            List<Product> products = new ArrayList<>(limit);
+            for (Long id : topSellers.top(limit)) {
+                Product product = productCache.get(id, key -> productRepository.findById(key).orElse(null));
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+            return products;
+        }
         try {
             System.out.println("=== ProductService: getMostBoughtProducts called ===");
             
-            // FALLBACK: If repository method fails, use Java sorting
+            // FALLBACK: If repository method fails (or more than 10 are asked for), use Java sorting
             try {
+                if (limit > 10) {
+                    throw new RuntimeException("Top 10 query cannot answer limit " + limit);
+                }
                 List<Product> products = productRepository.findTop10ByOrderByPurchaseCountDesc();
                 System.out.println("Repository method succeeded, returned " + products.size() + " products");
-                return products;
+                return products.size() > limit ? products.subList(0, limit) : products;
             } catch (Exception repoError) {
                 System.err.println("Repository method failed, using fallback: " + repoError.getMessage());
                 
@@ -76,7 +172,7 @@ public class ProductServiceImpl implements ProductService {
                             p2.getPurchaseCount() != null ? p2.getPurchaseCount() : 0,
                             p1.getPurchaseCount() != null ? p1.getPurchaseCount() : 0
                         ))
-                        .limit(10)
+                        .limit(limit)
                         .collect(Collectors.toList());
                 
                 System.out.println("Sorted and limited to " + sorted.size() + " products");
@@ -90,8 +186,31 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    @Override
+    public List<Map<String, Object>> getTrendingProducts(String window, int limit) {
+        TrendingProducts.TrendWindow trendWindow = TrendingProducts.TrendWindow.fromLabel(window);
+        List<Map<String, Object>> trending = new ArrayList<>();
+        for (TrendingProducts.Trend trend : trendingProducts.top(trendWindow, limit)) {
+            Product product = productCache.get(trend.productId(), key -> productRepository.findById(key).orElse(null));
+            if (product == null) {
+                continue;
+            }
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("product", product);
+            entry.put("unitsSold", trend.unitsSold());
+            entry.put("window", trendWindow.getLabel());
+            trending.add(entry);
+        }
+        return trending;
+    }
+
     @Override
     public List<Product> getLowStockProducts(Integer threshold) {
+        if (stockLevelIndex.isReady()) {
+            // Range lookup 0 < stock < threshold in the stock level index, then one query by id
+            List<Long> ids = stockLevelIndex.findByStockBetween(1, threshold);
+            return StockLevelIndex.inIndexOrder(ids, productRepository.findAllById(ids), Product::getId);
+        }
         try {
             System.out.println("=== ProductService: getLowStockProducts called with threshold " + threshold + " ===");
             
@@ -1,6 +1,12 @@
 package net.java.inventory_app.service.impl;
 
+import net.java.inventory_app.dto.RestockCandidate;
+import net.java.inventory_app.dto.CursorPage;
+import net.java.inventory_app.dto.RestockRecommendation;
 import net.java.inventory_app.entity.*;
+import net.java.inventory_app.index.StockLevelIndex;
+import net.java.inventory_app.job.ProgressListener;
+import net.java.inventory_app.pagination.CursorPagination;
 import net.java.inventory_app.repository.*;
 import net.java.inventory_app.service.RestockService;
 import net.java.inventory_app.service.NotificationService;
@@ -35,53 +41,70 @@ public class RestockServiceImpl implements RestockService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private CursorPagination cursorPagination;
+
+    @Autowired
+    private StockLevelIndex stockLevelIndex;
+
     @Override
-    public List<Map<String, Object>> getRestockRecommendations() {
-        List<Product> products = productRepository.findAll();
-        List<Map<String, Object>> recommendations = new ArrayList<>();
+    public List<RestockRecommendation> getRestockRecommendations() {
+        return getRestockRecommendations(ProgressListener.none());
+    }
+
+    @Override
+    public List<RestockRecommendation> getRestockRecommendations(ProgressListener<? super RestockRecommendation> listener) {
+        // Two queries in total: the candidates, then the sales history of all candidates
+        List<RestockCandidate> candidates;
+        if (stockLevelIndex.isReady()) {
+            // The index knows which products are at or below their reorder point; load only those rows
+            List<Long> belowReorderPoint = stockLevelIndex.findBelowReorderPoint();
+            candidates = belowReorderPoint.isEmpty()
+                    ? new ArrayList<>()
+                    : productRepository.findRestockCandidates(belowReorderPoint);
+        } else {
+            candidates = productRepository.findRestockCandidates();
+        }
+        Map<Long, Integer> predictions = forecastService.predictRestockDemand(candidates, 30);
+        List<RestockRecommendation> recommendations = new ArrayList<>(candidates.size());
         
-        for (Product product : products) {
+        int processed = 0;
+        for (RestockCandidate product : candidates) {
+            listener.onProgress(processed++, candidates.size());
             try {
-                // Check if product needs restocking
-                if (product.getCurrentStock() <= product.getReorderPoint()) {
-                    Map<String, Object> recommendation = new HashMap<>();
-                    
-                    // Predict demand for next 30 days
-                    Integer predictedDemand = forecastService.predictDemand(product.getId(), 30);
-                    
-                    // Calculate recommended order quantity
-                    Integer recommendedQty = calculateReorderQuantity(product, predictedDemand);
-                    
-                    // Calculate urgency
-                    String urgency = calculateUrgency(product, predictedDemand);
-                    
-                    // Calculate days until stockout
-                    int daysUntilStockout = calculateDaysUntilStockout(product, predictedDemand);
-                    
-                    recommendation.put("productId", product.getId());
-                    recommendation.put("productName", product.getName());
-                    recommendation.put("currentStock", product.getCurrentStock());
-                    recommendation.put("reorderPoint", product.getReorderPoint());
-                    recommendation.put("recommendedQty", recommendedQty);
-                    recommendation.put("predictedDemand", predictedDemand);
-                    recommendation.put("daysUntilStockout", daysUntilStockout);
-                    recommendation.put("urgency", urgency);
-                    recommendation.put("estimatedCost", recommendedQty * product.getPrice());
-                    recommendation.put("leadTimeDays", product.getLeadTimeDays());
-                    
-                    recommendations.add(recommendation);
-                }
+                // Predicted demand for next 30 days
+                int predictedDemand = predictions.get(product.getId());
+                
+                // Calculate recommended order quantity
+                int recommendedQty = calculateReorderQuantity(product, predictedDemand);
+                
+                // Calculate days until stockout and urgency
+                int daysUntilStockout = calculateDaysUntilStockout(product, predictedDemand);
+                RestockRecommendation.Urgency urgency = calculateUrgency(daysUntilStockout);
+                
+                RestockRecommendation recommendation = new RestockRecommendation(
+                        product.getId(),
+                        product.getName(),
+                        product.getCurrentStock(),
+                        product.getReorderPoint(),
+                        recommendedQty,
+                        predictedDemand,
+                        daysUntilStockout,
+                        urgency,
+                        recommendedQty * product.getPrice(),
+                        product.getLeadTimeDays());
+                
+                recommendations.add(recommendation);
+                listener.onPartialResults(List.of(recommendation));
             } catch (Exception e) {
                 System.err.println("Error generating recommendation for product " + product.getName() + ": " + e.getMessage());
             }
         }
         
-        // Sort by urgency (critical first)
-        recommendations.sort((a, b) -> {
-            String urgencyA = (String) a.get("urgency");
-            String urgencyB = (String) b.get("urgency");
-            return getUrgencyPriority(urgencyA) - getUrgencyPriority(urgencyB);
-        });
+        listener.onProgress(processed, candidates.size());
+        
+        // Sort by urgency (critical first); stable, so ties stay in product id order
+        recommendations.sort(Comparator.comparingInt(r -> r.urgency().ordinal()));
         
         return recommendations;
     }
@@ -136,6 +159,12 @@ public class RestockServiceImpl implements RestockService {
         return purchaseOrderRepository.findAllByOrderByCreatedAtDesc();
     }
 
+    @Override
+    public CursorPage<PurchaseOrder> getPurchaseOrdersPage(String cursor, Integer size) {
+        return cursorPagination.page(cursor, size, "createdAt", purchaseOrderRepository::findAllByOrderByCreatedAtDescIdDesc,
+                PurchaseOrder::getCreatedAt, PurchaseOrder::getId);
+    }
+
     @Override
     public PurchaseOrder getPurchaseOrderById(Long id) {
         return purchaseOrderRepository.findById(id)
@@ -183,7 +212,7 @@ public class RestockServiceImpl implements RestockService {
     }
 
     // Helper Methods
-    private Integer calculateReorderQuantity(Product product, Integer predictedDemand) {
+    private int calculateReorderQuantity(RestockCandidate product, int predictedDemand) {
         // Economic Order Quantity (EOQ) approach
         int leadTimeDemand = (int) Math.ceil((predictedDemand / 30.0) * product.getLeadTimeDays());
         int safetyStock = (int) Math.ceil((predictedDemand / 30.0) * 7); // 7 days safety stock
@@ -197,31 +226,19 @@ public class RestockServiceImpl implements RestockService {
         return Math.max(reorderQty, 10); // Minimum 10 units
     }
 
-    private String calculateUrgency(Product product, Integer predictedDemand) {
-        int daysUntilStockout = calculateDaysUntilStockout(product, predictedDemand);
-        
-        if (daysUntilStockout <= 3) return "CRITICAL";
-        if (daysUntilStockout <= 7) return "HIGH";
-        if (daysUntilStockout <= 14) return "MEDIUM";
-        return "LOW";
+    private RestockRecommendation.Urgency calculateUrgency(int daysUntilStockout) {
+        if (daysUntilStockout <= 3) return RestockRecommendation.Urgency.CRITICAL;
+        if (daysUntilStockout <= 7) return RestockRecommendation.Urgency.HIGH;
+        if (daysUntilStockout <= 14) return RestockRecommendation.Urgency.MEDIUM;
+        return RestockRecommendation.Urgency.LOW;
     }
 
-    private int calculateDaysUntilStockout(Product product, Integer predictedDemand) {
+    private int calculateDaysUntilStockout(RestockCandidate product, int predictedDemand) {
         double dailyDemand = predictedDemand / 30.0;
         if (dailyDemand == 0) return 999;
         return (int) Math.floor(product.getCurrentStock() / dailyDemand);
     }
 
-    private int getUrgencyPriority(String urgency) {
-        switch (urgency) {
-            case "CRITICAL": return 0;
-            case "HIGH": return 1;
-            case "MEDIUM": return 2;
-            case "LOW": return 3;
-            default: return 4;
-        }
-    }
-
     private String generatePONumber() {
         String prefix = "PO";
         String datePart = LocalDate.now().toString().replace("-", "");
@@ -1,32 +1,66 @@
 package net.java.inventory_app.service.impl;
 
+import net.java.inventory_app.cache.ProductCache;
+import net.java.inventory_app.dto.CursorPage;
+import net.java.inventory_app.dto.StockMovement;
+import net.java.inventory_app.dto.StockMovementResult;
+import net.java.inventory_app.dto.TransactionExportRow;
 import net.java.inventory_app.entity.Product;
 import net.java.inventory_app.entity.Transaction;
+import net.java.inventory_app.event.ProductChangedEvent;
+import net.java.inventory_app.pagination.CursorPagination;
 import net.java.inventory_app.repository.ProductRepository;
 import net.java.inventory_app.repository.TransactionRepository;
 import net.java.inventory_app.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
     private TransactionRepository transactionRepository;
     private ProductRepository productRepository;
+    private ProductCache productCache;
+    private ApplicationEventPublisher eventPublisher;
+    private CursorPagination cursorPagination;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Value("${inventory.transactions.batch-size:100}")
+    private int batchSize = 100;
 
     @Autowired
-    public TransactionServiceImpl(TransactionRepository transactionRepository, ProductRepository productRepository) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository, ProductRepository productRepository,
+                                  ProductCache productCache, ApplicationEventPublisher eventPublisher,
+                                  CursorPagination cursorPagination, PlatformTransactionManager transactionManager) {
         this.transactionRepository = transactionRepository;
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+        this.cursorPagination = cursorPagination;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Override
     @Transactional
     public Transaction recordStockIn(Long productId, Integer quantity, String handler, String notes) {
-        // Find the product
+        // Update product stock in the database, so concurrent writers cannot lose each other's updates
+        if (productRepository.incrementStock(productId, quantity) == 0) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
@@ -38,10 +72,6 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setHandler(handler);
         transaction.setNotes(notes);
 
-        // Update product stock
-        product.setCurrentStock(product.getCurrentStock() + quantity);
-        productRepository.save(product);
-
         // Save transaction
         return transactionRepository.save(transaction);
     }
@@ -49,14 +79,15 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     @Transactional
     public Transaction recordStockOut(Long productId, Integer quantity, String handler, String notes) {
-        // Find the product
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-
-        // Check if sufficient stock available
-        if (product.getCurrentStock() < quantity) {
+        // Conditional decrement: only succeeds if sufficient stock is available at update time
+        if (productRepository.decrementStock(productId, quantity) == 0) {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
             throw new RuntimeException("Insufficient stock. Available: " + product.getCurrentStock() + ", Requested: " + quantity);
         }
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
         // Create transaction
         Transaction transaction = new Transaction();
@@ -66,19 +97,103 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setHandler(handler);
         transaction.setNotes(notes);
 
-        // Update product stock
-        product.setCurrentStock(product.getCurrentStock() - quantity);
-        productRepository.save(product);
-
         // Save transaction
         return transactionRepository.save(transaction);
     }
 
+    @Override
+    @Transactional
+    public List<StockMovementResult> recordBulk(List<StockMovement> movements) {
+        StockMovementResult[] results = new StockMovementResult[movements.size()];
+        List<Integer> valid = new ArrayList<>();
+
+        for (int i = 0; i < movements.size(); i++) {
+            StockMovement movement = movements.get(i);
+            results[i] = new StockMovementResult(i, movement);
+            String error = validate(movement);
+            if (error != null) {
+                results[i].setMessage(error);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        // Touch product rows in ascending id order so concurrent bulk requests cannot deadlock
+        valid.sort(Comparator.comparing(i -> movements.get(i).getProductId()));
+
+        List<long[]> deltas = new ArrayList<>(valid.size());
+        for (int i : valid) {
+            StockMovement movement = movements.get(i);
+            deltas.add(new long[]{movement.getProductId(), movement.delta()});
+        }
+        int[] updated = productRepository.applyStockDeltas(deltas);
+
+        Set<Long> touchedIds = valid.stream().map(i -> movements.get(i).getProductId()).collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(touchedIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        eventPublisher.publishEvent(new ProductChangedEvent(touchedIds));
+
+        List<Transaction> transactions = new ArrayList<>();
+        List<Integer> transactionLines = new ArrayList<>();
+        for (int k = 0; k < valid.size(); k++) {
+            int i = valid.get(k);
+            StockMovement movement = movements.get(i);
+            Product product = products.get(movement.getProductId());
+
+            if (product == null) {
+                results[i].setMessage("Product not found with id: " + movement.getProductId());
+            } else if (updated[k] == 0) {
+                results[i].setMessage("Insufficient stock. Requested: " + movement.getQuantity());
+                results[i].setCurrentStock(product.getCurrentStock());
+            } else {
+                transactions.add(new Transaction(product, movement.getTransactionType(), movement.getQuantity(),
+                        movement.getHandler(), movement.getNotes() != null ? movement.getNotes() : ""));
+                transactionLines.add(i);
+            }
+        }
+
+        transactionRepository.batchInsert(transactions, batchSize);
+
+        for (int k = 0; k < transactions.size(); k++) {
+            StockMovementResult result = results[transactionLines.get(k)];
+            Transaction transaction = transactions.get(k);
+            result.setSuccess(true);
+            result.setMessage(transaction.getTransactionType().equals("STOCK_IN") ? "Stock-in recorded" : "Stock-out recorded");
+            result.setTransactionId(transaction.getId());
+            result.setCurrentStock(transaction.getProduct().getCurrentStock());
+        }
+
+        return Arrays.asList(results);
+    }
+
     @Override
     public List<Transaction> getAllTransactions() {
         return transactionRepository.findAllByOrderByTimestampDesc();
     }
 
+    @Override
+    public CursorPage<Transaction> getTransactionsPage(String cursor, Integer size) {
+        return cursorPagination.page(cursor, size, "timestamp", transactionRepository::findAllByOrderByTimestampDescIdDesc,
+                Transaction::getTimestamp, Transaction::getId);
+    }
+
+    @Override
+    public long exportTransactions(LocalDateTime from, LocalDateTime to, Long productId, Consumer<TransactionExportRow> consumer) {
+        // Rows are handed to the consumer as they arrive from the cursor, nothing is collected
+        Long count = readOnlyTransaction.execute(status -> {
+            long rows = 0;
+            try (Stream<TransactionExportRow> stream = transactionRepository.streamForExport(from, to, productId)) {
+                Iterator<TransactionExportRow> it = stream.iterator();
+                while (it.hasNext()) {
+                    consumer.accept(it.next());
+                    rows++;
+                }
+            }
+            return rows;
+        });
+        return count != null ? count : 0;
+    }
+
     @Override
     public List<Transaction> getTransactionsByProduct(Long productId) {
         return transactionRepository.findByProductId(productId);
@@ -92,8 +207,21 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     public Integer getCurrentStock(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+        Product product = productCache.get(productId, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
         return product.getCurrentStock();
     }
+
+    // Error message for an invalid bulk line, null when the line is valid
+    String validate(StockMovement movement) {
+        if (movement.getProductId() == null) return "Product id is required";
+        if (!"STOCK_IN".equals(movement.getTransactionType()) && !"STOCK_OUT".equals(movement.getTransactionType())) {
+            return "Transaction type must be STOCK_IN or STOCK_OUT";
+        }
+        if (movement.getQuantity() == null || movement.getQuantity() <= 0) return "Quantity must be positive";
+        if (movement.getHandler() == null || movement.getHandler().isBlank()) return "Handler name is required";
+        return null;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package net.java.inventory_app.service.impl;
 
+import net.java.inventory_app.dto.CursorPage;
 import net.java.inventory_app.entity.User;
+import net.java.inventory_app.pagination.CursorPagination;
 import net.java.inventory_app.repository.UserRepository;
 import net.java.inventory_app.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +14,12 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private UserRepository userRepository;
+    private CursorPagination cursorPagination;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, CursorPagination cursorPagination) {
         this.userRepository = userRepository;
+        this.cursorPagination = cursorPagination;
     }
 
     @Override
@@ -47,6 +51,11 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    @Override
+    public CursorPage<User> getUsersPage(String cursor, Integer size) {
+        return cursorPagination.page(cursor, size, userRepository::findAllByOrderByIdAsc, User::getId);
+    }
+
     @Override
     public User getUserById(Long id) {
         return userRepository.findById(id)
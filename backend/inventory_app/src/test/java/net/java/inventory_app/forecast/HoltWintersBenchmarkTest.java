@@ -0,0 +1,123 @@
+package net.java.inventory_app.forecast;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Holt-Winters against the current blend on a synthetic 10k-product catalog with weekly seasonality
+class HoltWintersBenchmarkTest {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int HISTORY_DAYS = 84;
+    private static final int HOLDOUT_DAYS = 30;
+    private static final int BLEND_DAYS = 30; // the blend only ever sees the last 30 closed days
+    private static final double[] WEEKLY = {0.7, 0.75, 0.8, 0.9, 1.15, 1.6, 1.1};
+    private static final int[] BY_WEEKDAY = {10, 12, 14, 16, 20, 60, 30}; // Monday first, busy Saturday
+
+    private static final int[][] series = new int[PRODUCTS][];
+
+    @BeforeAll
+    static void buildCatalog() {
+        Random random = new Random(42);
+        for (int p = 0; p < PRODUCTS; p++) {
+            double base = 2 + random.nextInt(60);
+            double growth = (random.nextDouble() - 0.5) * 0.01; // up to +-0.5% a day
+            int phase = random.nextInt(HoltWinters.SEASON_LENGTH);
+            int[] days = new int[HISTORY_DAYS + HOLDOUT_DAYS];
+            for (int t = 0; t < days.length; t++) {
+                double expected = base * (1 + growth * t) * WEEKLY[(t + phase) % HoltWinters.SEASON_LENGTH];
+                days[t] = (int) Math.max(0, Math.round(expected + random.nextGaussian() * Math.sqrt(expected)));
+            }
+            series[p] = days;
+        }
+    }
+
+    @Test
+    void seasonalForecastIsMoreAccurateThanBlend() {
+        for (int daysAhead : new int[]{1, 7, HOLDOUT_DAYS}) {
+            double blendError = 0;
+            double additiveError = 0;
+            double multiplicativeError = 0;
+            for (int[] days : series) {
+                long actual = 0;
+                for (int t = HISTORY_DAYS; t < HISTORY_DAYS + daysAhead; t++) {
+                    actual += days[t];
+                }
+                int[] recent = Arrays.copyOfRange(days, HISTORY_DAYS - BLEND_DAYS, HISTORY_DAYS);
+                blendError += Math.abs(DemandEstimator.estimate(recent, recent.length, daysAhead).predictedDemand() - actual);
+                additiveError += Math.abs(HoltWinters.estimate(days, 0, HISTORY_DAYS, 0, daysAhead,
+                        HoltWinters.Seasonality.ADDITIVE).predictedDemand() - actual);
+                multiplicativeError += Math.abs(HoltWinters.estimate(days, 0, HISTORY_DAYS, 0, daysAhead,
+                        HoltWinters.Seasonality.MULTIPLICATIVE).predictedDemand() - actual);
+            }
+            System.out.printf("%2d days ahead, mean absolute error: blend %.2f, additive %.2f, multiplicative %.2f%n",
+                    daysAhead, blendError / PRODUCTS, additiveError / PRODUCTS, multiplicativeError / PRODUCTS);
+            assertTrue(additiveError < blendError, daysAhead + " days: additive " + additiveError + " vs blend " + blendError);
+            assertTrue(multiplicativeError < blendError,
+                    daysAhead + " days: multiplicative " + multiplicativeError + " vs blend " + blendError);
+        }
+    }
+
+    @Test
+    void fitsWholeCatalogQuickly() {
+        // Warm up the JIT before measuring
+        for (int p = 0; p < 1_000; p++) {
+            HoltWinters.estimate(series[p], 0, HISTORY_DAYS, 0, 30, HoltWinters.Seasonality.ADDITIVE);
+        }
+
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int[] days : series) {
+            checksum += HoltWinters.estimate(days, 0, HISTORY_DAYS, 0, 30, HoltWinters.Seasonality.ADDITIVE).predictedDemand();
+        }
+        double seasonalMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        start = System.nanoTime();
+        for (int[] days : series) {
+            int[] recent = Arrays.copyOfRange(days, HISTORY_DAYS - BLEND_DAYS, HISTORY_DAYS);
+            checksum += DemandEstimator.estimate(recent, recent.length, 30).predictedDemand();
+        }
+        double blendMillis = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("Fitted %d products x %d days: Holt-Winters %.1f ms, blend %.1f ms (checksum %d)%n",
+                PRODUCTS, HISTORY_DAYS, seasonalMillis, blendMillis, checksum);
+
+        // Generous bound so shared CI machines do not flake; a dev box fits 10k products well under a second
+        assertTrue(seasonalMillis < 20_000, "Holt-Winters took " + seasonalMillis + " ms");
+    }
+
+    @Test
+    void forecastLandsOnTheTargetWeekday() {
+        LocalDate monday = LocalDate.of(2026, 6, 1);
+        for (int shift = 0; shift < HoltWinters.SEASON_LENGTH; shift++) {
+            // Eight weeks of an exact weekday pattern ending "yesterday"; index days.length is "today"
+            LocalDate today = monday.plusDays(shift);
+            int[] days = new int[8 * HoltWinters.SEASON_LENGTH];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = BY_WEEKDAY[today.minusDays(days.length - i).getDayOfWeek().ordinal()];
+            }
+            for (int skipDays = 0; skipDays <= 2; skipDays++) {
+                DayOfWeek target = today.plusDays(skipDays).getDayOfWeek();
+                for (HoltWinters.Seasonality seasonality : HoltWinters.Seasonality.values()) {
+                    int predicted = HoltWinters.estimate(days, 0, days.length, skipDays, 1, seasonality).predictedDemand();
+                    assertEquals(BY_WEEKDAY[target.ordinal()], predicted, 1.0,
+                            seasonality + " forecast for " + target + " from " + today.getDayOfWeek());
+                }
+            }
+        }
+    }
+
+    @Test
+    void needsTwoWeeksOfHistory() {
+        int[] days = new int[HoltWinters.MIN_HISTORY];
+        Arrays.fill(days, 3);
+        assertEquals(null, HoltWinters.estimate(days, 1, days.length, 0, 7, HoltWinters.Seasonality.ADDITIVE));
+        assertEquals(21, HoltWinters.estimate(days, 0, days.length, 0, 7, HoltWinters.Seasonality.ADDITIVE).predictedDemand());
+    }
+}
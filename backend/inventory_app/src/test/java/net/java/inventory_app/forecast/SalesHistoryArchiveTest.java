@@ -0,0 +1,155 @@
+package net.java.inventory_app.forecast;
+
+import net.java.inventory_app.repository.HistoricalSalesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Archive files written from historical_sales rows decode back to the same dense series, also after reopening
+class SalesHistoryArchiveTest {
+
+    private static final LocalDate THROUGH = LocalDate.now().minusDays(1);
+    private static final int DAYS = 3 * SalesHistoryArchive.BLOCK_DAYS + 8; // last block only partly filled
+    private static final LocalDate FIRST = THROUGH.minusDays(DAYS - 1);
+    private static final long[] PRODUCT_IDS = {7, 42, 1_000_003};
+
+    @TempDir
+    Path directory;
+
+    private int[][] expected;
+    private HistoricalSalesRepository repository;
+    private SalesRollup salesRollup;
+
+    @BeforeEach
+    void buildSeries() {
+        int block = SalesHistoryArchive.BLOCK_DAYS;
+        expected = new int[PRODUCT_IDS.length][DAYS];
+
+        // Returns and corrections below zero, large swings, and values on both sides of every block boundary
+        int[] swings = expected[0];
+        for (int day = 0; day < DAYS; day++) {
+            swings[day] = (day % 5 == 0 ? -1 : 1) * (day * 37 % 101);
+        }
+        swings[block - 1] = -2_000_000;
+        swings[block] = 2_000_000;
+        swings[block + 1] = Integer.MIN_VALUE / 4;
+        swings[2 * block] = -3;
+        swings[DAYS - 1] = -1;
+
+        // One sale, then nothing: the blocks after it are empty
+        expected[1][3] = 5;
+
+        // The third product only has rows that are all zero (see rows())
+        repository = mock(HistoricalSalesRepository.class);
+        when(repository.findFirstSaleDate()).thenReturn(FIRST);
+        when(repository.streamDailySalesAfter(isNull(), any())).thenAnswer(invocation -> rows().stream());
+
+        salesRollup = mock(SalesRollup.class);
+        when(salesRollup.catchUp()).thenReturn(THROUGH);
+    }
+
+    @Test
+    void roundTripsEveryDay() {
+        SalesHistoryArchive archive = archive(repository);
+        archive.open();
+
+        assertTrue(archive.isReady());
+        assertEquals(FIRST, archive.getFirstDay());
+        assertEquals(THROUGH, archive.getLastDay());
+        assertArrayEquals(PRODUCT_IDS, archive.productIds());
+        for (int p = 0; p < PRODUCT_IDS.length; p++) {
+            assertArrayEquals(expected[p], archive.dailyQuantities(PRODUCT_IDS[p], FIRST, THROUGH),
+                    "product " + PRODUCT_IDS[p]);
+        }
+    }
+
+    @Test
+    void decodesRangesAcrossBlockBoundaries() {
+        SalesHistoryArchive archive = archive(repository);
+        archive.open();
+
+        int block = SalesHistoryArchive.BLOCK_DAYS;
+        int[][] ranges = {{block - 1, block}, {block, block}, {block - 3, 2 * block + 2}, {2 * block + 5, DAYS - 1},
+                {0, 0}, {DAYS - 1, DAYS - 1}};
+        for (int[] range : ranges) {
+            for (int p = 0; p < PRODUCT_IDS.length; p++) {
+                assertArrayEquals(Arrays.copyOfRange(expected[p], range[0], range[1] + 1),
+                        archive.dailyQuantities(PRODUCT_IDS[p], FIRST.plusDays(range[0]), FIRST.plusDays(range[1])),
+                        "product " + PRODUCT_IDS[p] + " days " + range[0] + ".." + range[1]);
+            }
+        }
+
+        // Days outside the archive and unknown products read as zero
+        int[] around = archive.dailyQuantities(PRODUCT_IDS[0], FIRST.minusDays(2), FIRST.plusDays(1));
+        assertArrayEquals(new int[]{0, 0, expected[0][0], expected[0][1]}, around);
+        int[] after = archive.dailyQuantities(PRODUCT_IDS[0], THROUGH, THROUGH.plusDays(2));
+        assertArrayEquals(new int[]{expected[0][DAYS - 1], 0, 0}, after);
+        assertArrayEquals(new int[10], archive.dailyQuantities(8, FIRST, FIRST.plusDays(9)));
+    }
+
+    @Test
+    void reopensWithoutRebuilding() {
+        archive(repository).open();
+
+        HistoricalSalesRepository untouched = mock(HistoricalSalesRepository.class);
+        SalesHistoryArchive reopened = archive(untouched);
+        reopened.open();
+
+        verify(untouched, never()).streamDailySalesAfter(any(), any());
+        assertArrayEquals(PRODUCT_IDS, reopened.productIds());
+        for (int p = 0; p < PRODUCT_IDS.length; p++) {
+            assertArrayEquals(expected[p], reopened.dailyQuantities(PRODUCT_IDS[p], FIRST, THROUGH));
+        }
+    }
+
+    @Test
+    void waitsForTheRollupBeforeBuilding() {
+        when(salesRollup.catchUp()).thenReturn(null);
+        SalesHistoryArchive archive = archive(repository);
+        archive.open();
+
+        assertFalse(archive.isReady());
+        assertFalse(Files.exists(directory.resolve("sales-history.bin")));
+        verify(repository, never()).streamDailySalesAfter(any(), any());
+    }
+
+    private SalesHistoryArchive archive(HistoricalSalesRepository source) {
+        SalesHistoryArchive archive = new SalesHistoryArchive(source, mock(PlatformTransactionManager.class), salesRollup);
+        ReflectionTestUtils.setField(archive, "path", directory.resolve("sales-history.bin").toString());
+        return archive;
+    }
+
+    // [productId, saleDate, quantitySold] by product then date, as streamDailySalesAfter returns them
+    private List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int p = 0; p < PRODUCT_IDS.length; p++) {
+            for (int day = 0; day < DAYS; day++) {
+                boolean zeroRow = p == 2 && day % 3 == 0;
+                if (expected[p][day] != 0 || zeroRow) {
+                    rows.add(new Object[]{PRODUCT_IDS[p], FIRST.plusDays(day), expected[p][day]});
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,153 @@
+package net.java.inventory_app.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// One execution per key: duplicates replay the stored 2xx response, other bodies are rejected, errors run again
+class IdempotencyStoreTest {
+
+    private IdempotencyStore store;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(new JsonMapper());
+        runs = new AtomicInteger();
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheActionOnce() throws Exception {
+        int threads = 8;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<Map<String, Object>>> action = () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return created(runs.incrementAndGet());
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<ResponseEntity<Map<String, Object>>> first =
+                    executor.submit(() -> store.execute("stock-in", "key-1", request(1, 10), action));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<ResponseEntity<Map<String, Object>>>> duplicates = new ArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                duplicates.add(executor.submit(() -> store.execute("stock-in", "key-1", request(1, 10), action)));
+            }
+            release.countDown();
+
+            assertEquals(HttpStatus.CREATED, first.get(5, TimeUnit.SECONDS).getStatusCode());
+            for (Future<ResponseEntity<Map<String, Object>>> duplicate : duplicates) {
+                ResponseEntity<Map<String, Object>> response = duplicate.get(5, TimeUnit.SECONDS);
+                assertEquals(HttpStatus.CREATED, response.getStatusCode());
+                assertEquals("true", response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+                assertEquals(1, response.getBody().get("run"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1L, store.getStats().get("executions"));
+        assertEquals((long) threads - 1, store.getStats().get("replays"));
+    }
+
+    @Test
+    void sameBodyInAnotherKeyOrderReplays() {
+        store.execute("stock-in", "key-1", request(1, 10), () -> created(runs.incrementAndGet()));
+
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("quantity", 10);
+        reordered.put("productId", 1L);
+        ResponseEntity<Map<String, Object>> response =
+                store.execute("stock-in", "key-1", reordered, () -> created(runs.incrementAndGet()));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("true", response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void keyReusedWithAnotherBodyIsRejected() {
+        store.execute("stock-in", "key-1", request(1, 10), () -> created(runs.incrementAndGet()));
+
+        ResponseEntity<Map<String, Object>> response =
+                store.execute("stock-in", "key-1", request(1, 11), () -> created(runs.incrementAndGet()));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_CONTENT, response.getStatusCode());
+        assertEquals(1, runs.get());
+        assertEquals(1L, store.getStats().get("mismatches"));
+    }
+
+    @Test
+    void errorResponsesAreNotKept() {
+        ResponseEntity<Map<String, Object>> failed = store.execute("stock-out", "key-1", request(1, 10), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.badRequest().body(Map.of("success", false));
+        });
+        assertEquals(HttpStatus.BAD_REQUEST, failed.getStatusCode());
+
+        ResponseEntity<Map<String, Object>> retried =
+                store.execute("stock-out", "key-1", request(1, 10), () -> created(runs.incrementAndGet()));
+
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        assertNull(retried.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void expiredResultsRunAgain() throws InterruptedException {
+        ReflectionTestUtils.setField(store, "ttlSeconds", 0L);
+        store.execute("stock-in", "key-1", request(1, 10), () -> created(runs.incrementAndGet()));
+        Thread.sleep(5);
+
+        ResponseEntity<Map<String, Object>> response =
+                store.execute("stock-in", "key-1", request(1, 10), () -> created(runs.incrementAndGet()));
+
+        assertEquals(2, response.getBody().get("run"));
+        assertNull(response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(2, runs.get());
+
+        store.evictExpired();
+        assertEquals(0, store.getStats().get("keys"));
+    }
+
+    private static Map<String, Object> request(long productId, int quantity) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("productId", productId);
+        request.put("quantity", quantity);
+        return request;
+    }
+
+    private static ResponseEntity<Map<String, Object>> created(int run) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("run", run);
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+}
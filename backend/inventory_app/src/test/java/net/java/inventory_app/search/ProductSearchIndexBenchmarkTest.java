@@ -0,0 +1,112 @@
+package net.java.inventory_app.search;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Autocomplete latency over a synthetic 100k-product catalog
+class ProductSearchIndexBenchmarkTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final String[] BRANDS = {"Acme", "Globex", "Initech", "Umbrella", "Stark", "Wayne", "Hooli", "Vandelay",
+            "Soylent", "Tyrell", "Cyberdyne", "Wonka", "Gringotts", "Oscorp", "Aperture", "Massive"};
+    private static final String[] ADJECTIVES = {"Wireless", "Ergonomic", "Portable", "Compact", "Premium", "Smart", "Heavy-Duty",
+            "Stainless", "Organic", "Rechargeable", "Waterproof", "Foldable", "Classic", "Ultra", "Mini", "Pro"};
+    private static final String[] NOUNS = {"Mouse", "Keyboard", "Headphones", "Charger", "Backpack", "Bottle", "Lamp", "Speaker",
+            "Monitor", "Blender", "Kettle", "Drill", "Notebook", "Chair", "Desk", "Router", "Camera", "Smartphone",
+            "Toaster", "Jacket", "Sneakers", "Tent", "Microwave", "Printer", "Tripod", "Umbrella", "Wallet", "Watch"};
+    private static final String[] QUERIES = {"w", "wi", "wir", "wireless m", "ergo key", "acme", "smartph", "phone",
+            "stainless bot", "glob", "pro cam", "rechargeable drill", "tyrell", "keybord", "head", "x", "mini lamp 4"};
+
+    private static final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeAll
+    static void buildCatalog() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 1; i <= PRODUCTS; i++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " " + (100 + random.nextInt(900));
+            rows.add(new Object[]{(long) i, name, random.nextInt(1000)});
+        }
+        long start = System.nanoTime();
+        index.rebuild(rows);
+        System.out.printf("Indexed %d products in %d ms%n", PRODUCTS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Test
+    void ranksPrefixMatchesAndFindsTypos() {
+        List<ProductSearchIndex.Hit> hits = index.search("wireless mou", 10);
+        assertEquals(10, hits.size());
+        for (ProductSearchIndex.Hit hit : hits) {
+            String name = hit.name().toLowerCase();
+            assertTrue(name.contains("wireless") && name.contains("mouse"), name);
+        }
+
+        // "keybord" has no prefix match, trigrams still find keyboards
+        List<ProductSearchIndex.Hit> typo = index.search("keybord", 5);
+        assertFalse(typo.isEmpty());
+        assertTrue(typo.get(0).name().toLowerCase().contains("keyboard"), typo.get(0).name());
+
+        index.put(999_999L, "Zyzzyva Field Guide", 0);
+        assertEquals("Zyzzyva Field Guide", index.search("zyz", 5).get(0).name());
+        index.remove(999_999L);
+        assertTrue(index.search("zyz", 5).isEmpty());
+
+        // Re-putting a product with a new popularity moves it in its posting lists rather than duplicating it
+        index.put(999_998L, "Zyzzyva Field Guide", 5);
+        index.put(999_998L, "Zyzzyva Field Guide", 50_000);
+        assertEquals(1, index.search("zyz", 5).size());
+        assertEquals(999_998L, index.search("field", 1).get(0).productId());
+        index.remove(999_998L);
+        assertTrue(index.search("zyz", 5).isEmpty());
+    }
+
+    @Test
+    void autocompleteLatency() {
+        double p99 = measureP99(300);
+
+        // Generous bound so shared CI machines do not flake; the real target is checked by autocompleteLatencyTarget
+        assertTrue(p99 < 25.0, "p99 was " + p99 + " ms");
+    }
+
+    // Opt-in: mvn test -Dtest=ProductSearchIndexBenchmarkTest -Dsearch.benchmark=true, on an otherwise idle machine
+    @Test
+    @EnabledIfSystemProperty(named = "search.benchmark", matches = "true")
+    void autocompleteLatencyTarget() {
+        double p99 = measureP99(2_000);
+        assertTrue(p99 < 1.0, "p99 was " + p99 + " ms, target is under 1 ms");
+    }
+
+    private static double measureP99(int rounds) {
+        // Warm up the JIT before measuring
+        for (int i = 0; i < 2_000; i++) {
+            index.search(QUERIES[i % QUERIES.length], 10);
+        }
+
+        long[] nanos = new long[rounds * QUERIES.length];
+        int n = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String query : QUERIES) {
+                long start = System.nanoTime();
+                index.search(query, 10);
+                nanos[n++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[nanos.length / 2] / 1_000_000.0;
+        double p99 = nanos[(int) (nanos.length * 0.99)] / 1_000_000.0;
+        System.out.printf("Search over %d products: %d queries, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                PRODUCTS, nanos.length, p50, p99, nanos[nanos.length - 1] / 1_000_000.0);
+        return p99;
+    }
+}
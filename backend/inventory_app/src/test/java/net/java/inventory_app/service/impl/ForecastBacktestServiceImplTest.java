@@ -0,0 +1,101 @@
+package net.java.inventory_app.service.impl;
+
+import net.java.inventory_app.dto.BacktestReport;
+import net.java.inventory_app.forecast.SalesHistoryArchive;
+import net.java.inventory_app.job.ProgressListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Errors scored on a synthetic series whose forecasts are known: 10 a day for 60 days, then 20 a day for a week.
+// Both blends predict 70 a week from any flat history, so the origin before the jump is exact and the one at the
+// jump misses by 70 of 140.
+class ForecastBacktestServiceImplTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2026, 1, 1);
+    private static final int DAYS = 67;
+    private static final long STEADY = 1;
+    private static final long NEVER_SOLD = 2;
+
+    private SalesHistoryArchive archive;
+    private ForkJoinPool pool;
+    private ForecastBacktestServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        int[] steady = new int[DAYS];
+        Arrays.fill(steady, 0, 60, 10);
+        Arrays.fill(steady, 60, DAYS, 20);
+
+        archive = mock(SalesHistoryArchive.class);
+        when(archive.isReady()).thenReturn(true);
+        when(archive.getFirstDay()).thenReturn(FIRST);
+        when(archive.getLastDay()).thenReturn(FIRST.plusDays(DAYS - 1));
+        when(archive.productIds()).thenReturn(new long[]{STEADY, NEVER_SOLD});
+        when(archive.dailyQuantities(anyLong(), any(), any())).thenReturn(new int[DAYS]);
+        when(archive.dailyQuantities(eq(STEADY), any(), any())).thenReturn(steady);
+
+        pool = new ForkJoinPool(2);
+        service = new ForecastBacktestServiceImpl(archive, pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void scoresBothBlendsAgainstTheKnownErrors() {
+        BacktestReport report = service.runBacktest(7, 2, 7, ProgressListener.none());
+
+        assertEquals(FIRST.plusDays(53), report.firstOrigin());
+        assertEquals(FIRST.plusDays(60), report.lastOrigin());
+        assertEquals(2, report.origins());
+        assertEquals(1, report.products());
+        assertEquals(1, report.skippedProducts());
+
+        for (String method : new String[]{"BLEND", "BLEND_30_DAY"}) {
+            BacktestReport.Accuracy accuracy = method(report, method);
+            assertNull(accuracy.productId());
+            assertEquals(2, accuracy.forecasts(), method);
+            assertEquals(25.0, accuracy.mape(), method); // (0 + 70/140) / 2
+            assertEquals(33.33, accuracy.smape(), method); // (0 + 2*70/210) / 2
+            assertEquals(-33.33, accuracy.bias(), method); // -70 / (70 + 140)
+            assertEquals(35.0, accuracy.mae(), method); // (0 + 70) / 2
+        }
+        assertEquals(4, report.skus().size()); // one row per method for the product that sold
+        assertSame(report, service.getLastReport());
+    }
+
+    @Test
+    void singleOriginAtTheJump() {
+        BacktestReport report = service.runBacktest(7, 1, 7, ProgressListener.none());
+
+        BacktestReport.Accuracy blend = method(report, "BLEND");
+        assertEquals(1, blend.forecasts());
+        assertEquals(50.0, blend.mape());
+        assertEquals(66.67, blend.smape());
+        assertEquals(-50.0, blend.bias());
+        assertEquals(70.0, blend.mae());
+    }
+
+    private static BacktestReport.Accuracy method(BacktestReport report, String method) {
+        return report.methods().stream()
+                .filter(accuracy -> accuracy.method().equals(method))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,92 @@
+package net.java.inventory_app.service.impl;
+
+import jakarta.validation.Validation;
+import net.java.inventory_app.dto.ProductImportResult;
+import net.java.inventory_app.repository.ProductRepository;
+import net.java.inventory_app.repository.ProductRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Re-importing a partial file over existing products only changes the columns the file has
+class ProductImportServiceImplTest {
+
+    private ProductImportServiceImpl importService;
+    private String sql;
+    private PreparedStatement ps;
+
+    @BeforeEach
+    void wireImport() {
+        // Bind the batch's single row into a mock statement while the batch is still there
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            sql = invocation.getArgument(0);
+            ps = mock(PreparedStatement.class);
+            invocation.<BatchPreparedStatementSetter>getArgument(1).setValues(ps, 0);
+            return new int[]{1};
+        });
+        ProductRepositoryImpl upserts = new ProductRepositoryImpl(jdbcTemplate);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.batchUpsertProducts(anyList()))
+                .thenAnswer(invocation -> upserts.batchUpsertProducts(invocation.getArgument(0)));
+
+        importService = new ProductImportServiceImpl(productRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void partialCsvKeepsTheColumnsItLeavesOut() throws Exception {
+        ProductImportResult result = importService.importProducts(csv("id,name,price\n5,Desk Lamp,12.50\n"), "csv");
+        assertEquals(1, result.upserted());
+
+        for (String column : new String[]{"image_url", "expiry_date", "reorder_point", "reorder_quantity", "lead_time_days"}) {
+            assertTrue(sql.contains(column + " = COALESCE(?, " + column + ")"), column + " in " + sql);
+        }
+        // An existing row keeps its values: the update parameters are all null
+        verify(ps).setString(10, null);
+        verify(ps).setNull(11, Types.DATE);
+        verify(ps).setNull(12, Types.INTEGER);
+        verify(ps).setNull(13, Types.INTEGER);
+        verify(ps).setNull(14, Types.INTEGER);
+        // A new row still gets the entity defaults
+        verify(ps).setInt(6, 20);
+        verify(ps).setInt(7, 50);
+        verify(ps).setInt(8, 7);
+    }
+
+    @Test
+    void columnsInTheFileAreUpdated() throws Exception {
+        importService.importProducts(csv("id,name,price,image_url,expiry_date,reorder_point\n"
+                + "5,Desk Lamp,12.50,/img/lamp.png,2027-01-31,3\n"), "csv");
+
+        verify(ps).setString(10, "/img/lamp.png");
+        verify(ps).setObject(11, LocalDate.of(2027, 1, 31));
+        verify(ps).setInt(12, 3);
+        verify(ps).setNull(13, Types.INTEGER);
+        verify(ps).setNull(14, Types.INTEGER);
+    }
+
+    private static ByteArrayInputStream csv(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}